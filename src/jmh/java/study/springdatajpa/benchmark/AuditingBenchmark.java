@@ -0,0 +1,92 @@
+package study.springdatajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.auditing.CurrentDateTimeProvider;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.data.mapping.context.PersistentEntities;
+import study.springdatajpa.SpringDataJpaApplication;
+import study.springdatajpa.entity.AuditingListener;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.support.AuditingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원을 저장할 때 JPA가 호출하는 감사 리스너의 @PrePersist 콜백 비용을 비교한다.
+ * 변경 전 설정(스프링 데이터 AuditingEntityListener, UUID.randomUUID()와 LocalDateTime.now())과
+ * 현재 애플리케이션의 AuditingListener, 배치 모드를 비교한다.
+ * 한 번의 호출은 ENTITY_COUNT 명의 회원을 저장하는 것과 같다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuditingBenchmark {
+    private static final int ENTITY_COUNT = 1000;
+
+    private ConfigurableApplicationContext context;
+    private AuditingEntityListener previousListener;
+    private AuditingListener listener;
+    private final List<Member> members = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringDataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:auditing;DB_CLOSE_DELAY=-1",
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "repository-metrics.enabled=false",
+                        "logging.level.root=warn")
+                .run();
+        AuditingHandler previousHandler = new AuditingHandler(PersistentEntities.of(context.getBean(JpaMetamodelMappingContext.class)));
+        previousHandler.setAuditorAware(() -> Optional.of(UUID.randomUUID().toString()));
+        previousHandler.setDateTimeProvider(CurrentDateTimeProvider.INSTANCE);
+        previousListener = new AuditingEntityListener();
+        previousListener.setAuditingHandler(() -> previousHandler);
+        listener = context.getBean(AuditingListener.class);
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            members.add(Member.builder()
+                    .username("member" + i)
+                    .age(i % 50)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITY_COUNT)
+    public List<Member> previousListenerPath() {
+        for (Member member : members) {
+            previousListener.touchForCreate(member);
+        }
+        return members;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITY_COUNT)
+    public List<Member> auditingListener() {
+        for (Member member : members) {
+            listener.touchForCreate(member);
+        }
+        return members;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITY_COUNT)
+    public List<Member> batchMode() {
+        return AuditingContext.inBatch(this::auditingListener);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,90 @@
+package study.springdatajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.springdatajpa.SpringDataJpaApplication;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 10,000명을 영속성 컨텍스트에 올려 두고 그중 dirtyCount 명만 바꾼 뒤 flush 하는 비용을 측정한다.
+ * 바이트코드 향상을 적용한 빌드(./gradlew jmh)와 적용하지 않은 빌드(./gradlew clean jmh -PdisableEnhancement)의 결과를 비교한다.
+ * 향상 여부는 compileJava의 입력이 아니므로 clean 없이 전환하면 이전 빌드의 클래스가 그대로 쓰인다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FlushBenchmark {
+    private static final int MEMBER_COUNT = 10_000;
+
+    @Param({"0", "100"})
+    int dirtyCount;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringDataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:flush;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "repository-metrics.enabled=false",
+                        "logging.level.root=warn")
+                .run();
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        MemberJpaRepository memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < MEMBER_COUNT; i++) {
+                members.add(Member.builder()
+                        .username("member" + i)
+                        .age(i % 50)
+                        .build());
+            }
+            memberJpaRepository.saveAllBatched(members);
+        });
+    }
+
+    // 측정 대상이 아닌 조회와 변경은 호출마다 미리 해 둔다.
+    @Setup(Level.Invocation)
+    public void loadPersistenceContext() {
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        List<Member> members = entityManager.createQuery("select m from Member m", Member.class).getResultList();
+        for (int i = 0; i < dirtyCount; i++) {
+            Member member = members.get(i);
+            member.setUsername(member.getUsername() + "'");
+        }
+    }
+
+    @Benchmark
+    public void flush() {
+        entityManager.flush();
+    }
+
+    @TearDown(Level.Invocation)
+    public void rollback() {
+        entityManager.getTransaction().rollback();
+        entityManager.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
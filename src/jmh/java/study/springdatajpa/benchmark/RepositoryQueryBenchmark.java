@@ -0,0 +1,136 @@
+package study.springdatajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.springdatajpa.SpringDataJpaApplication;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.entity.Team;
+import study.springdatajpa.repository.MemberJpaRepository;
+import study.springdatajpa.repository.MemberRepository;
+import study.springdatajpa.repository.TeamJpaRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 회원 조회를 방식별로 실행해서 처리량과 할당량(gc 프로파일러)을 비교한다.
+ * ./gradlew jmh 로 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RepositoryQueryBenchmark {
+    private static final int TEAM_COUNT = 10;
+    private static final int MEMBER_COUNT = 1000;
+    private static final String USERNAME = "member500";
+    // member500의 나이
+    private static final int AGE = 500 % 50;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+
+    @State(Scope.Benchmark)
+    public static class PageSize {
+        @Param({"10", "100", "1000"})
+        int size;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringDataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "repository-metrics.enabled=false",
+                        "logging.level.root=warn")
+                .run();
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.executeWithoutResult(status -> seed(context.getBean(TeamJpaRepository.class)));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> namedQueryWithEntityManager() {
+        return transactionTemplate.execute(status -> memberJpaRepository.findByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public List<Member> namedQueryWithSpringData() {
+        return transactionTemplate.execute(status -> memberRepository.findByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public List<Member> queryAnnotation() {
+        return transactionTemplate.execute(status -> memberRepository.findMembers(USERNAME, AGE));
+    }
+
+    @Benchmark
+    public List<Member> derivedQuery() {
+        return transactionTemplate.execute(status -> memberRepository.findByUsernameAndAgeGreaterThan(USERNAME, AGE - 1));
+    }
+
+    @Benchmark
+    public List<Member> customEntityManagerQuery() {
+        return transactionTemplate.execute(status -> memberRepository.findMemberCustom());
+    }
+
+    @Benchmark
+    public List<Member> entityGraph() {
+        return transactionTemplate.execute(status -> memberRepository.findMembersWithTeam());
+    }
+
+    @Benchmark
+    public List<Member> fetchJoin() {
+        return transactionTemplate.execute(status -> entityManager.createQuery("select m from Member m left join fetch m.team", Member.class)
+                .getResultList());
+    }
+
+    @Benchmark
+    public Page<Member> findAllWithPageable(PageSize pageSize) {
+        return transactionTemplate.execute(status -> memberRepository.findAll(PageRequest.of(0, pageSize.size)));
+    }
+
+    private void seed(TeamJpaRepository teamJpaRepository) {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teams.add(Team.builder()
+                    .name("team" + i)
+                    .build());
+        }
+        teamJpaRepository.saveAllBatched(teams);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            members.add(Member.builder()
+                    .username("member" + i)
+                    .age(i % 50)
+                    .team(teams.get(i % TEAM_COUNT))
+                    .build());
+        }
+        memberJpaRepository.saveAllBatched(members);
+    }
+}
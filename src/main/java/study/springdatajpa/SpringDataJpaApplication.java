@@ -2,10 +2,14 @@ package study.springdatajpa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class SpringDataJpaApplication {
     public static void main(String[] args) {
-        SpringApplication.run(SpringDataJpaApplication.class, args);
+        // 시작 단계별 소요 시간을 모아서 /actuator/startup으로 확인한다.
+        SpringApplication application = new SpringApplication(SpringDataJpaApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(2048));
+        application.run(args);
     }
 }
@@ -0,0 +1,97 @@
+package study.springdatajpa.config;
+
+import com.p6spy.engine.logging.Category;
+import com.p6spy.engine.spy.appender.Slf4JLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 쿼리를 실행한 스레드에서는 링 버퍼에 넣기만 하고, 포맷팅과 로그 출력은 백그라운드 스레드에서 처리하는 P6Spy appender.
+ * 느린 쿼리는 항상 기록하고, 빠른 쿼리는 sample-rate 비율만큼만 기록한다. 버퍼가 가득 차면 버리고 개수를 센다.
+ */
+@Slf4j
+public class AsyncSqlLogger extends Slf4JLogger {
+    private static final int BUFFER_SIZE = 8192;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final SqlLogRingBuffer<SqlLogEvent> buffer = new SqlLogRingBuffer<>(BUFFER_SIZE);
+    private static final Counter droppedCounter = Metrics.counter("p6spy.sql.log.dropped");
+    private static final Counter sampledOutCounter = Metrics.counter("p6spy.sql.log.sampled.out");
+
+    private static volatile long slowQueryThresholdMs = 100;
+    private static volatile double sampleRate = 1.0;
+
+    static {
+        Metrics.gauge("p6spy.sql.log.pending", buffer, SqlLogRingBuffer::size);
+        Thread worker = new Thread(AsyncSqlLogger::drain, "p6spy-async-logger");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public static void configure(long slowQueryThresholdMs, double sampleRate) {
+        AsyncSqlLogger.slowQueryThresholdMs = slowQueryThresholdMs;
+        AsyncSqlLogger.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void logSQL(int connectionId, String now, long elapsed, Category category, String prepared, String sql, String url) {
+        if (!isSampled(elapsed, ThreadLocalRandom.current().nextDouble())) {
+            sampledOutCounter.increment();
+            return;
+        }
+        if (!buffer.offer(new SqlLogEvent(this, connectionId, now, elapsed, category, prepared, sql, url))) {
+            droppedCounter.increment();
+        }
+    }
+
+    // 느린 쿼리는 항상 기록하고, 빠른 쿼리는 0 이상 1 미만의 random이 sampleRate보다 작을 때만 기록한다.
+    static boolean isSampled(long elapsed, double random) {
+        return elapsed >= slowQueryThresholdMs || random < sampleRate;
+    }
+
+    private static void drain() {
+        while (true) {
+            SqlLogEvent event = buffer.poll();
+            if (event == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                event.logger.write(event);
+            } catch (RuntimeException e) {
+                log.warn("failed to write sql log", e);
+            }
+        }
+    }
+
+    private void write(SqlLogEvent event) {
+        super.logSQL(event.connectionId, event.now, event.elapsed, event.category, event.prepared, event.sql, event.url);
+    }
+
+    private static class SqlLogEvent {
+        private final AsyncSqlLogger logger;
+        private final int connectionId;
+        private final String now;
+        private final long elapsed;
+        private final Category category;
+        private final String prepared;
+        private final String sql;
+        private final String url;
+
+        private SqlLogEvent(AsyncSqlLogger logger, int connectionId, String now, long elapsed, Category category, String prepared, String sql, String url) {
+            this.logger = logger;
+            this.connectionId = connectionId;
+            this.now = now;
+            this.elapsed = elapsed;
+            this.category = category;
+            this.prepared = prepared;
+            this.sql = sql;
+            this.url = url;
+        }
+    }
+}
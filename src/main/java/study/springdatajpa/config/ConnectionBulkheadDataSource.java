@@ -0,0 +1,118 @@
+package study.springdatajpa.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 커넥션 풀 크기만큼의 허가를 가진 세마포어로 커넥션을 빌리는 스레드 수를 제한한다.
+ * 가상 스레드 수천 개가 커넥션 풀 안에서 대기하지 않고 여기서 대기하도록 해서, 허가를 기다린 시간과
+ * 커넥션을 쥐고 있던 시간을 나눠서 측정한다. 허가는 커넥션을 닫을 때 반납한다.
+ */
+public class ConnectionBulkheadDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    private final Timer waitTimer;
+    private final Timer holdTimer;
+    private final Counter rejectedCounter;
+
+    public ConnectionBulkheadDataSource(DataSource dataSource, int maxConnections, Duration timeout, MeterRegistry meterRegistry) {
+        super(dataSource);
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeoutMillis = timeout.toMillis();
+        this.waitTimer = Timer.builder("db.bulkhead.permit.wait")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.holdTimer = Timer.builder("db.bulkhead.connection.hold")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = meterRegistry.counter("db.bulkhead.rejected");
+        Gauge.builder("db.bulkhead.permits.available", permits, Semaphore::availablePermits).register(meterRegistry);
+        Gauge.builder("db.bulkhead.waiting", permits, Semaphore::getQueueLength).register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return acquire(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return acquire(username, password);
+    }
+
+    private Connection acquire(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                throw new SQLTransientConnectionException("connection permit not available within " + timeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("interrupted while waiting for a connection permit", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        Connection connection;
+        try {
+            connection = username == null ? super.getConnection() : super.getConnection(username, password);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return releaseOnClose(connection, System.nanoTime());
+    }
+
+    private Connection releaseOnClose(Connection connection, long acquiredAt) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            // Object 메서드는 닫힌 커넥션에서도 동작하도록 프록시에서 처리한다.
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Bulkhead connection [" + connection + "]";
+                // Connection으로 꺼내면 프록시를 그대로 돌려준다. 원래 커넥션을 꺼내서 닫으면 허가가 반납되지 않는다.
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                    permits.release();
+                    holdTimer.record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+                }
+            }
+        });
+    }
+}
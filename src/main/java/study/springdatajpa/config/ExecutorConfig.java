@@ -0,0 +1,61 @@
+package study.springdatajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@EnableAsync
+@Configuration
+public class ExecutorConfig {
+    // inClauseQueryExecutor처럼 Executor 빈을 직접 등록하면 스프링 부트의 기본 applicationTaskExecutor가 빠지므로
+    // spring.task.execution 설정을 그대로 적용해서 같은 이름으로 다시 등록한다. 실행기를 지정하지 않은 @Async도 이 실행기를 사용한다.
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // 큐가 가득 차면 호출한 스레드에서 실행해서 DB로 가는 동시 요청 수를 제한한다.
+    @Bean
+    public ThreadPoolTaskExecutor inClauseQueryExecutor(@Value("${query.in-clause.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 16);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("in-clause-query-");
+        return executor;
+    }
+
+    // @Async 리포지토리 메서드 전용 실행기. 스레드 수를 커넥션 풀보다 작게 두어 비동기 조회가 풀을 독차지하지 않게 한다.
+    @Bean
+    public ThreadPoolTaskExecutor repositoryQueryExecutor(@Value("${repository.async.threads:4}") int threads,
+                                                          @Value("${repository.async.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("repository-query-");
+        return executor;
+    }
+
+    // 청크 벌크 업데이트 전용 실행기. 청크마다 커넥션을 하나씩 잡으므로 호출마다 스레드 풀을 만들지 않고 전체 동시 청크 수를 제한한다.
+    @Bean
+    public ThreadPoolTaskExecutor bulkUpdateExecutor(@Value("${bulk-update.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 16);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("bulk-update-");
+        return executor;
+    }
+}
@@ -1,19 +1,48 @@
 package study.springdatajpa.config;
 
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.AuditorAware;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import study.springdatajpa.support.CachingAuditorAware;
+import study.springdatajpa.support.TeamCacheEvictionListener;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
-@EnableJpaAuditing
 @Configuration
 public class JpaConfig {
     @Bean
     public AuditorAware<String> auditorProvider() {
         // 실제 사용 시 세션 정보를 가져온 후 유저 아이디를 꺼내서 넣으면 된다.
-        return () -> Optional.of(UUID.randomUUID().toString());
+        // 예제용 임의 작성자는 UUID 형식이 필요 없으므로 SecureRandom을 쓰는 UUID.randomUUID() 대신 임의의 16진수 문자열로 만든다.
+        return new CachingAuditorAware(() -> Long.toHexString(ThreadLocalRandom.current().nextLong()));
+    }
+
+    // 엔티티 매니저 팩토리는 백그라운드에서 만들어지므로 팩토리를 꺼내지 않고 부트스트랩할 때 리스너를 등록한다.
+    @Bean
+    public HibernatePropertiesCustomizer teamCacheEvictionCustomizer() {
+        TeamCacheEvictionListener listener = new TeamCacheEvictionListener();
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+                EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+                registry.appendListeners(EventType.POST_INSERT, listener);
+                registry.appendListeners(EventType.POST_UPDATE, listener);
+                registry.appendListeners(EventType.POST_DELETE, listener);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return properties -> properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(integrator));
     }
 }
@@ -0,0 +1,22 @@
+package study.springdatajpa.config;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+/**
+ * HikariCP는 SQLTimeoutException이 발생한 커넥션을 끊어진 것으로 보고 풀에서 제거한다.
+ * H2의 락 대기 시간 초과(NOWAIT, WAIT n)도 SQLTimeoutException이지만 커넥션은 멀쩡하므로 제거하지 않는다.
+ */
+public class LockTimeoutExceptionOverride implements SQLExceptionOverride {
+    // org.h2.api.ErrorCode.LOCK_TIMEOUT_1
+    private static final int H2_LOCK_TIMEOUT = 50200;
+
+    @java.lang.Override
+    public SQLExceptionOverride.Override adjudicate(SQLException sqlException) {
+        if (sqlException.getErrorCode() == H2_LOCK_TIMEOUT) {
+            return SQLExceptionOverride.Override.DO_NOT_EVICT;
+        }
+        return SQLExceptionOverride.Override.CONTINUE_EVICT;
+    }
+}
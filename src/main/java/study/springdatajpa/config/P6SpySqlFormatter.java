@@ -4,6 +4,7 @@ import com.p6spy.engine.logging.Category;
 import com.p6spy.engine.spy.P6SpyOptions;
 import com.p6spy.engine.spy.appender.MessageFormattingStrategy;
 import org.hibernate.engine.jdbc.internal.FormatStyle;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 import javax.annotation.PostConstruct;
@@ -11,15 +12,26 @@ import java.util.Locale;
 
 @Configuration
 public class P6SpySqlFormatter implements MessageFormattingStrategy {
+    @Value("${sql-logging.slow-query-threshold-ms:100}")
+    private long slowQueryThresholdMs;
+    @Value("${sql-logging.sample-rate:1.0}")
+    private double sampleRate;
+    @Value("${sql-logging.async:true}")
+    private boolean async;
+
     @PostConstruct
     public void setLogMessageFormat() {
         P6SpyOptions.getActiveInstance().setLogMessageFormat(this.getClass().getName());
+        // 스타터의 logging 설정은 정해진 appender만 고를 수 있으므로 비동기 appender는 직접 지정한다.
+        if (async) {
+            P6SpyOptions.getActiveInstance().setAppender(AsyncSqlLogger.class.getName());
+        }
+        AsyncSqlLogger.configure(slowQueryThresholdMs, sampleRate);
     }
 
     @Override
     public String formatMessage(int connectionId, String now, long elapsed, String category, String prepared, String sql, String url) {
-        sql = formatSql(category, sql);
-        return String.format("[%s] | %d ms | %s", category, elapsed, formatSql(category, sql));
+        return "[" + category + "] | " + elapsed + " ms | " + formatSql(category, sql);
     }
 
     private String formatSql(String category, String sql) {
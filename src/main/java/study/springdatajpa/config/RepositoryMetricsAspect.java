@@ -0,0 +1,126 @@
+package study.springdatajpa.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.util.ClassUtils;
+import study.springdatajpa.dto.CursorPage;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 인터페이스/클래스와 메서드별로 지연 시간, 호출 수, 실행된 SQL 문 개수, 결과 개수를 기록한다.
+ * 오버로딩한 메서드가 같은 미터에 섞이지 않도록 method 태그에는 findByAge(int,Pageable) 같은 시그니처를 쓴다.
+ */
+@Aspect
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+    public static final String INVOCATIONS = "repository.invocations";
+    public static final String STATEMENTS = "repository.invocation.statements";
+    public static final String RESULTS = "repository.invocation.results";
+    public static final String ERRORS = "repository.invocation.errors";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Map<Method, RepositoryMeters>> meters = new ConcurrentHashMap<>();
+
+    @Around("execution(* study.springdatajpa.repository.*Repository+.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryMeters repositoryMeters = meters.computeIfAbsent(joinPoint.getTarget().getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                        method -> new RepositoryMeters(repositoryName(joinPoint.getTarget().getClass()), signature(method)));
+
+        long statementsBefore = SqlStatementCounter.current();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            repositoryMeters.results.record(resultSize(result));
+            return result;
+        } catch (Throwable e) {
+            repositoryMeters.errors.increment();
+            throw e;
+        } finally {
+            repositoryMeters.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            repositoryMeters.statements.record(SqlStatementCounter.current() - statementsBefore);
+        }
+    }
+
+    // Spring Data 리포지토리는 JDK 프록시이므로 프록시가 구현한 리포지토리 인터페이스 이름을 사용한다.
+    private static String repositoryName(Class<?> type) {
+        if (Proxy.isProxyClass(type)) {
+            for (Class<?> repositoryInterface : type.getInterfaces()) {
+                if (org.springframework.data.repository.Repository.class.isAssignableFrom(repositoryInterface)) {
+                    return repositoryInterface.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(type).getSimpleName();
+    }
+
+    private static String signature(Method method) {
+        StringJoiner parameters = new StringJoiner(",", method.getName() + "(", ")");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            parameters.add(parameterType.getSimpleName());
+        }
+        return parameters.toString();
+    }
+
+    private static int resultSize(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof CursorPage) {
+            return ((CursorPage<?>) result).getContent().size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return 1;
+    }
+
+    private class RepositoryMeters {
+        private final Timer latency;
+        private final DistributionSummary statements;
+        private final DistributionSummary results;
+        private final Counter errors;
+
+        private RepositoryMeters(String repository, String method) {
+            this.latency = Timer.builder(INVOCATIONS)
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            this.statements = DistributionSummary.builder(STATEMENTS)
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .register(meterRegistry);
+            this.results = DistributionSummary.builder(RESULTS)
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .register(meterRegistry);
+            this.errors = Counter.builder(ERRORS)
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package study.springdatajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// 비활성화하면 애스펙트 자체를 등록하지 않으므로 리포지토리 호출에 추가 비용이 없다.
+@ConditionalOnProperty(name = "repository-metrics.enabled", havingValue = "true")
+@Configuration
+public class RepositoryMetricsConfig {
+    @Bean
+    public RepositoryMetricsAspect repositoryMetricsAspect(MeterRegistry meterRegistry) {
+        return new RepositoryMetricsAspect(meterRegistry);
+    }
+
+    @Bean
+    public RepositoryMetricsEndpoint repositoryMetricsEndpoint(MeterRegistry meterRegistry) {
+        return new RepositoryMetricsEndpoint(meterRegistry);
+    }
+}
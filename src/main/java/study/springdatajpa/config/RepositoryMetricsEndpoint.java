@@ -0,0 +1,56 @@
+package study.springdatajpa.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/repositories 에서 리포지토리 메서드별 통계를 한 번에 보여준다.
+ */
+@Endpoint(id = "repositories")
+@RequiredArgsConstructor
+public class RepositoryMetricsEndpoint {
+    private final MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public List<Map<String, Object>> repositories() {
+        List<Map<String, Object>> repositories = new ArrayList<>();
+        for (Timer timer : meterRegistry.find(RepositoryMetricsAspect.INVOCATIONS).timers()) {
+            String repository = timer.getId().getTag("repository");
+            String method = timer.getId().getTag("method");
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("repository", repository);
+            stats.put("method", method);
+            stats.put("count", timer.count());
+            stats.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+            stats.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                stats.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+            }
+            stats.put("meanStatements", mean(RepositoryMetricsAspect.STATEMENTS, repository, method));
+            stats.put("meanResults", mean(RepositoryMetricsAspect.RESULTS, repository, method));
+            repositories.add(stats);
+        }
+        repositories.sort(Comparator.comparing(stats -> stats.get("repository") + "." + stats.get("method")));
+        return repositories;
+    }
+
+    private double mean(String name, String repository, String method) {
+        DistributionSummary summary = meterRegistry.find(name)
+                .tag("repository", repository)
+                .tag("method", method)
+                .summary();
+        return (summary != null) ? summary.mean() : 0;
+    }
+}
@@ -0,0 +1,54 @@
+package study.springdatajpa.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 여러 스레드가 넣고 하나의 스레드만 꺼내는 크기가 고정된 lock-free 링 버퍼.
+ * 버퍼가 가득 차면 기다리지 않고 offer가 false를 반환한다.
+ */
+class SqlLogRingBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // 소비자 스레드만 변경한다.
+    private volatile long head;
+
+    SqlLogRingBuffer(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    boolean offer(E element) {
+        while (true) {
+            long currentTail = tail.get();
+            if (currentTail - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(currentTail, currentTail + 1)) {
+                slots.lazySet((int) currentTail & mask, element);
+                return true;
+            }
+        }
+    }
+
+    // 자리를 예약한 생산자가 아직 값을 쓰지 않았다면 비어 있는 것으로 보고 null을 반환한다.
+    E poll() {
+        int index = (int) head & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head = head + 1;
+        return element;
+    }
+
+    int size() {
+        return (int) (tail.get() - head);
+    }
+}
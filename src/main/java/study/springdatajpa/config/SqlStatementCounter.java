@@ -0,0 +1,69 @@
+package study.springdatajpa.config;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import study.springdatajpa.support.StatementScope;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * P6Spy가 감싼 커넥션에서 실행된 SQL 문 개수를 스레드별로 센다.
+ * 구간의 시작과 끝에서 {@link #current()} 값의 차이를 구하면 그 사이에 실행된 SQL 문 개수가 된다.
+ * SQL 문 실행 시간은 jdbc.statement.execution 타이머에 기록하고, 열려 있는 {@link StatementScope}에도 SQL 문을 전달한다.
+ */
+@Component
+public class SqlStatementCounter extends JdbcEventListener {
+    private static final ThreadLocal<long[]> counter = ThreadLocal.withInitial(() -> new long[1]);
+    private static final Timer executionTimer = Metrics.timer("jdbc.statement.execution");
+
+    public static long current() {
+        return counter.get()[0];
+    }
+
+    // p6spy 3.8에는 onAfterAnyExecute가 없으므로 실행 이벤트를 모두 받아서 한 곳으로 모은다.
+    @Override
+    public void onAfterExecute(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        record(statementInformation, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecute(StatementInformation statementInformation, long timeElapsedNanos, String sql, SQLException e) {
+        record(statementInformation, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        record(statementInformation, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteQuery(StatementInformation statementInformation, long timeElapsedNanos, String sql, SQLException e) {
+        record(statementInformation, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+        record(statementInformation, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql, int rowCount, SQLException e) {
+        record(statementInformation, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        record(statementInformation, timeElapsedNanos);
+    }
+
+    private void record(StatementInformation statementInformation, long timeElapsedNanos) {
+        counter.get()[0]++;
+        executionTimer.record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+        StatementScope.record(statementInformation.getSql());
+    }
+}
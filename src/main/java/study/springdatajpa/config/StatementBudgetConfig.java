@@ -0,0 +1,24 @@
+package study.springdatajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@ConditionalOnProperty(name = "statement-budget.enabled", havingValue = "true")
+@EnableConfigurationProperties(StatementBudgetProperties.class)
+@Configuration
+public class StatementBudgetConfig {
+    @Bean
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(StatementBudgetProperties properties, MeterRegistry meterRegistry) {
+        // 필터는 응답 본문이 이미 클라이언트로 나간 뒤에 검사하므로, 운영에서 예외를 던지면 요청은 성공하고 로그만 오류로 남는다.
+        if (properties.getMode() == StatementBudgetProperties.Mode.FAIL && !properties.isAllowFailMode()) {
+            throw new IllegalStateException("statement-budget.mode=fail은 테스트에서 statement-budget.allow-fail-mode=true와 함께만 사용할 수 있습니다.");
+        }
+        FilterRegistrationBean<StatementBudgetFilter> registration = new FilterRegistrationBean<>(new StatementBudgetFilter(properties, meterRegistry));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
@@ -0,0 +1,74 @@
+package study.springdatajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import study.springdatajpa.support.StatementScope;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 요청마다 {@link StatementScope}를 열어서 실행된 SQL 문 개수를 URL 패턴별 예산과 비교하고, 같은 모양의 SQL 문이
+ * 반복되면 N+1로 보고한다. 비동기로 처리되는 요청은 다른 스레드에서 SQL이 실행되므로 검사하지 않는다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StatementBudgetFilter extends OncePerRequestFilter {
+    private final StatementBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (StatementScope scope = StatementScope.open()) {
+            filterChain.doFilter(request, response);
+            if (!isAsyncStarted(request)) {
+                check(request, scope);
+            }
+        }
+    }
+
+    private void check(HttpServletRequest request, StatementScope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        meterRegistry.summary("http.server.requests.statements", "uri", uri).record(scope.getStatementCount());
+        if (properties.isExempt(uri)) {
+            return;
+        }
+        int budget = properties.budgetOf(uri);
+        Map<String, Integer> repeatedShapes = scope.getRepeatedShapes(properties.getRepeatThreshold());
+
+        StringBuilder violations = new StringBuilder();
+        if (scope.getStatementCount() > budget) {
+            violations.append(String.format("%d statements exceed budget %d", scope.getStatementCount(), budget));
+            count("http.server.requests.statement.budget.exceeded", uri);
+        }
+        if (!repeatedShapes.isEmpty()) {
+            if (violations.length() > 0) {
+                violations.append(", ");
+            }
+            violations.append("possible N+1 ").append(repeatedShapes);
+            count("http.server.requests.statement.repeated", uri);
+        }
+        if (violations.length() == 0) {
+            return;
+        }
+        String message = request.getMethod() + " " + uri + ": " + violations;
+        if (properties.getMode() == StatementBudgetProperties.Mode.FAIL) {
+            throw new IllegalStateException(message);
+        }
+        if (properties.getMode() == StatementBudgetProperties.Mode.LOG) {
+            log.warn(message);
+        }
+    }
+
+    private void count(String name, String uri) {
+        meterRegistry.counter(name, "uri", uri).increment();
+    }
+}
@@ -0,0 +1,45 @@
+package study.springdatajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 요청 하나에서 실행할 수 있는 SQL 문 개수. budgets와 exempt의 키는 /members/{id}처럼 매핑된 URL 패턴이다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "statement-budget")
+public class StatementBudgetProperties {
+    private Mode mode = Mode.LOG;
+    private int defaultBudget = 20;
+    // 같은 모양의 SQL 문이 이 횟수 이상 실행되면 N+1로 본다.
+    private int repeatThreshold = 5;
+    private Map<String, Integer> budgets = new HashMap<>();
+    // 처리하는 row 수에 비례해서 SQL 문이 늘어나는 URL 패턴. 예산과 N+1 검사를 하지 않고 SQL 문 개수만 기록한다.
+    private Set<String> exempt = new HashSet<>();
+    // FAIL 모드를 허용한다. 테스트 설정에서만 켠다.
+    private boolean allowFailMode;
+
+    public boolean isExempt(String pattern) {
+        return exempt.contains(pattern);
+    }
+
+    public int budgetOf(String pattern) {
+        return budgets.getOrDefault(pattern, defaultBudget);
+    }
+
+    public enum Mode {
+        // 경고 로그를 남긴다.
+        LOG,
+        // 로그 없이 메트릭만 기록한다. 위반 횟수 메트릭은 모든 모드에서 기록한다.
+        METRIC,
+        // 예외를 던진다. 응답이 이미 커밋된 뒤일 수 있으므로 allow-fail-mode를 켠 테스트에서만 사용할 수 있다.
+        FAIL
+    }
+}
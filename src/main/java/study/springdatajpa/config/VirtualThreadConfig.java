@@ -0,0 +1,54 @@
+package study.springdatajpa.config;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DataSourceDecorator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+// 요청마다 가상 스레드를 만들어서 처리한다. JDBC 호출이 스레드를 붙잡아도 동시 요청 수가 톰캣 스레드 수에 묶이지 않는다.
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+@Configuration
+public class VirtualThreadConfig {
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // P6Spy 데코레이터보다 바깥에 씌워서 허가를 얻은 뒤에만 풀에서 커넥션을 빌린다.
+    @Bean
+    public DataSourceDecorator connectionBulkheadDecorator(MeterRegistry meterRegistry,
+                                                           @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+                                                           @Value("${spring.datasource.hikari.connection-timeout:30000}") long connectionTimeoutMillis) {
+        return new BulkheadDecorator(meterRegistry, maximumPoolSize, Duration.ofMillis(connectionTimeoutMillis));
+    }
+
+    private static class BulkheadDecorator implements DataSourceDecorator, Ordered {
+        private final MeterRegistry meterRegistry;
+        private final int maximumPoolSize;
+        private final Duration timeout;
+
+        BulkheadDecorator(MeterRegistry meterRegistry, int maximumPoolSize, Duration timeout) {
+            this.meterRegistry = meterRegistry;
+            this.maximumPoolSize = maximumPoolSize;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public DataSource decorate(String beanName, DataSource dataSource) {
+            return new ConnectionBulkheadDataSource(dataSource, maximumPoolSize, timeout, meterRegistry);
+        }
+
+        @Override
+        public int getOrder() {
+            return 100;
+        }
+    }
+}
@@ -1,23 +1,53 @@
 package study.springdatajpa.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.springdatajpa.dto.CursorPage;
 import study.springdatajpa.dto.MemberDto;
+import study.springdatajpa.dto.MemberOverview;
+import study.springdatajpa.dto.MemberSummary;
 import study.springdatajpa.entity.Member;
 import study.springdatajpa.entity.Team;
+import study.springdatajpa.repository.CountMode;
+import study.springdatajpa.repository.MemberCsvImporter;
+import study.springdatajpa.repository.MemberImportReport;
 import study.springdatajpa.repository.MemberRepository;
 
 import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @RestController
 public class MemberController {
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final Duration OVERVIEW_TIMEOUT = Duration.ofMillis(Long.parseLong(MemberRepository.ASYNC_QUERY_TIMEOUT_MILLIS));
+
     private final MemberRepository memberRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final MemberCsvImporter memberCsvImporter;
 
 //    @PostConstruct
 //    public void init() {
@@ -28,14 +58,74 @@ public class MemberController {
 //    }
 
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Member member) {
+    public String findMember(@PathVariable("id") MemberSummary member) {
         return member.getUsername();
     }
 
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable) {
-        return memberRepository.findAll(pageable)
-                .map(MemberDto::of);
+    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable,
+                                @RequestParam(value = "count", defaultValue = "EXACT") CountMode countMode) {
+        return memberRepository.findMemberDtos(pageable, countMode);
+    }
+
+    // 깊은 페이지에서도 앞선 row를 건너뛰지 않도록 offset 대신 커서로 페이징한다.
+    // 잘못된 커서는 리포지토리에서 InvalidDataAccessApiUsageException으로 바뀌어 나오므로 400으로 응답한다.
+    @GetMapping(value = "/members", params = "mode=keyset")
+    public CursorPage<MemberDto> listByCursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                              @PageableDefault(size = 5) Pageable pageable) {
+        try {
+            return memberRepository.findAll(cursor, pageable.getPageSize())
+                    .map(MemberDto::of);
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
+    // 세 조회를 repositoryQueryExecutor에서 동시에 실행하고, 요청 스레드는 결과를 기다리지 않고 반환한다.
+    @GetMapping("/members/overview")
+    public CompletableFuture<MemberOverview> overview(@RequestParam("age") int age,
+                                                      @PageableDefault(size = 5) Pageable pageable) {
+        return ParallelQueries.combine(
+                memberRepository.findAsyncByAge(age, pageable),
+                memberRepository.findMemberDtosAsync(pageable),
+                memberRepository.findUsernamesAsync(),
+                (sameAgeMembers, members, usernames) -> new MemberOverview(sameAgeMembers.map(MemberDto::of), members, usernames),
+                OVERVIEW_TIMEOUT);
+    }
+
+    // 회원 한 명당 한 줄씩 NDJSON으로 내려 보내므로 회원 수와 상관없이 메모리 사용량이 일정하다.
+    // produces는 요청 매핑에만 쓰이고 StreamingResponseBody 응답에는 Content-Type을 넣지 않으므로 직접 지정한다.
+    @GetMapping(value = "/members/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = outputStream -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Member> members = memberRepository.streamAll(EXPORT_FETCH_SIZE)) {
+                    members.map(MemberDto::of)
+                            .forEach(memberDto -> writeLine(outputStream, memberDto));
+                }
+            });
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // 영속성 컨텍스트를 거치지 않고 JDBC 배치로 저장한다. 처리량과 거부된 row를 응답으로 돌려준다.
+    @PostMapping(value = "/members/import", consumes = "text/csv")
+    public MemberImportReport importMembers(Reader reader) {
+        return memberCsvImporter.importCsv(reader);
+    }
+
+    private void writeLine(OutputStream outputStream, MemberDto memberDto) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(memberDto));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private Member createMember(String username, int age, Team team) {
@@ -0,0 +1,25 @@
+package study.springdatajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+import study.springdatajpa.dto.MemberSummary;
+import study.springdatajpa.repository.MemberRepository;
+import study.springdatajpa.support.MemberSummaryCache;
+
+/**
+ * 도메인 클래스 컨버터 대신 필요한 컬럼만 조회하는 MemberSummary로 변환한다.
+ * 캐시에 있으면 DB와 EntityManager를 사용하지 않는다.
+ */
+@RequiredArgsConstructor
+@Component
+public class MemberSummaryConverter implements Converter<String, MemberSummary> {
+    private final MemberRepository memberRepository;
+    private final MemberSummaryCache memberSummaryCache;
+
+    @Override
+    public MemberSummary convert(String source) {
+        return memberSummaryCache.get(Long.valueOf(source), id -> memberRepository.findSummaryById(id)
+                .orElse(null));
+    }
+}
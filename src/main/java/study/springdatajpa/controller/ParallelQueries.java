@@ -0,0 +1,35 @@
+package study.springdatajpa.controller;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 서로 의존하지 않는 비동기 조회를 함께 기다렸다가 결과를 합친다.
+ * 조회가 동시에 실행되므로 전체 응답 시간은 각 조회 시간의 합이 아니라 가장 느린 조회 시간에 가까워진다.
+ * 하나라도 실패하거나 timeout 안에 끝나지 않으면 합친 결과도 예외로 완료되고, 남은 조회는 취소한다.
+ * 취소는 아직 executor 큐에서 기다리는 조회만 건너뛰므로, 이미 실행 중인 쿼리는 JDBC 쿼리 타임아웃으로 멈춘다.
+ */
+final class ParallelQueries {
+    private ParallelQueries() {
+    }
+
+    @FunctionalInterface
+    interface TriFunction<A, B, C, R> {
+        R apply(A a, B b, C c);
+    }
+
+    static <A, B, C, R> CompletableFuture<R> combine(CompletableFuture<A> first, CompletableFuture<B> second, CompletableFuture<C> third,
+                                                     TriFunction<? super A, ? super B, ? super C, ? extends R> combiner, Duration timeout) {
+        CompletableFuture<R> result = CompletableFuture.allOf(first, second, third)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(ignored -> combiner.apply(first.join(), second.join(), third.join()));
+        result.whenComplete((ignored, e) -> {
+            if (e != null) {
+                Stream.of(first, second, third).forEach(future -> future.cancel(true));
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,19 @@
+package study.springdatajpa.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+@Getter
+public class MemberOverview {
+    private final Page<MemberDto> sameAgeMembers;
+    private final Page<MemberDto> members;
+    private final List<String> usernames;
+
+    public MemberOverview(Page<MemberDto> sameAgeMembers, Page<MemberDto> members, List<String> usernames) {
+        this.sameAgeMembers = sameAgeMembers;
+        this.members = members;
+        this.usernames = usernames;
+    }
+}
@@ -0,0 +1,14 @@
+package study.springdatajpa.dto;
+
+import lombok.Getter;
+
+@Getter
+public class MemberSummary {
+    private final Long id;
+    private final String username;
+
+    public MemberSummary(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+}
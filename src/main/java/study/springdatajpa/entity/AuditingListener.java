@@ -0,0 +1,39 @@
+package study.springdatajpa.entity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import study.springdatajpa.support.AuditingContext;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import java.time.LocalDateTime;
+
+/**
+ * 생성/수정 시각과 작성자를 기록하는 엔티티 리스너.
+ * 스프링 데이터의 AuditingEntityListener는 엔티티마다 메타데이터를 찾고 리플렉션과 변환 서비스로 값을 쓰므로,
+ * {@link AuditingContext}의 시각과 {@link AuditorAware}의 작성자를 엔티티 메서드로 바로 넣는다.
+ * 하이버네이트가 스프링 빈으로 생성한다.
+ */
+@RequiredArgsConstructor
+@Component
+public class AuditingListener {
+    private final AuditorAware<String> auditorAware;
+
+    @PrePersist
+    public void touchForCreate(BaseTimeEntity entity) {
+        entity.markCreated(AuditingContext.now());
+        if (entity instanceof BaseEntity) {
+            ((BaseEntity) entity).markCreatedBy(auditorAware.getCurrentAuditor().orElse(null));
+        }
+    }
+
+    @PreUpdate
+    public void touchForUpdate(BaseTimeEntity entity) {
+        LocalDateTime now = AuditingContext.now();
+        entity.markModified(now);
+        if (entity instanceof BaseEntity) {
+            ((BaseEntity) entity).markModifiedBy(auditorAware.getCurrentAuditor().orElse(null));
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package study.springdatajpa.entity;
 
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.LastModifiedBy;
+import org.hibernate.annotations.LazyGroup;
 
+import javax.persistence.Basic;
 import javax.persistence.Column;
+import javax.persistence.FetchType;
 import javax.persistence.MappedSuperclass;
 
 @Getter
 @MappedSuperclass
 public class BaseEntity extends BaseTimeEntity {
-    @CreatedBy
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("audit")
     @Column(updatable = false)
     private String createBy;
-    @LastModifiedBy
     private String lastModifiedBy;
+
+    void markCreatedBy(String auditor) {
+        createBy = auditor;
+        lastModifiedBy = auditor;
+    }
+
+    void markModifiedBy(String auditor) {
+        lastModifiedBy = auditor;
+    }
 }
@@ -1,22 +1,33 @@
 package study.springdatajpa.entity;
 
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.hibernate.annotations.LazyGroup;
 
+import javax.persistence.Basic;
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
 import javax.persistence.MappedSuperclass;
 import java.time.LocalDateTime;
 
 @Getter
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners(AuditingListener.class)
 @MappedSuperclass
 public class BaseTimeEntity {
-    @CreatedDate
+    // 생성 정보는 목록 조회에서 쓰지 않으므로 처음 접근할 때 audit 그룹으로 한 번에 로딩한다.
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("audit")
     @Column(updatable = false)
     private LocalDateTime createDate;
-    @LastModifiedDate
     private LocalDateTime lastModifiedDate;
+
+    // 향상된 엔티티는 엔티티 자신의 메서드에서 쓴 필드만 추적하므로 리스너는 필드 대신 이 메서드를 호출한다.
+    void markCreated(LocalDateTime now) {
+        createDate = now;
+        lastModifiedDate = now;
+    }
+
+    void markModified(LocalDateTime now) {
+        lastModifiedDate = now;
+    }
 }
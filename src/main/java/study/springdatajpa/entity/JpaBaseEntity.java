@@ -1,5 +1,7 @@
 package study.springdatajpa.entity;
 
+import study.springdatajpa.support.AuditingContext;
+
 import javax.persistence.Column;
 import javax.persistence.MappedSuperclass;
 import javax.persistence.PrePersist;
@@ -14,13 +16,13 @@ public class JpaBaseEntity {
 
     @PrePersist
     public void prePersist() {
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = AuditingContext.now();
         createAt = now;
         updateAt = now;
     }
 
     @PreUpdate
     public void preUpdate() {
-        updateAt = LocalDateTime.now();
+        updateAt = AuditingContext.now();
     }
 }
@@ -1,6 +1,11 @@
 package study.springdatajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import study.springdatajpa.support.MemberChangeListener;
 
 import javax.persistence.*;
 
@@ -11,12 +16,26 @@ import javax.persistence.*;
 @ToString(of = {"id", "username", "age"})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Getter
+@EntityListeners(MemberChangeListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
 @Entity
+// age 인덱스에 member_id를 붙여서 (age, member_id) 키셋 페이징도 인덱스만으로 정렬한다.
+// team_id 인덱스는 팀의 회원 수(Team.memberCount)를 셀 때 사용한다.
+@Table(indexes = {
+        @Index(name = "ix_member_username", columnList = "username"),
+        @Index(name = "ix_member_age_id", columnList = "age, member_id"),
+        @Index(name = "ix_member_team_id", columnList = "team_id")
+})
 public class Member extends BaseEntity {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_id_generator")
+    @GenericGenerator(name = "member_id_generator", strategy = "study.springdatajpa.entity.PooledLoSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
+    @Version
+    private Long version;
     private String username;
     private int age;
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,7 +56,17 @@ public class Member extends BaseEntity {
     }
 
     public void changeTeam(Team team) {
+        if (this.team != null) {
+            this.team.removeMember(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        team.addMember(this);
+    }
+
+    @PreRemove
+    public void preRemove() {
+        if (team != null) {
+            team.removeMember(this);
+        }
     }
 }
@@ -0,0 +1,49 @@
+package study.springdatajpa.entity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * 시퀀스를 한 번 호출할 때마다 block-size 개의 식별자를 미리 할당받는 pooled-lo 시퀀스 생성기.
+ * 시퀀스의 increment도 block-size로 생성되므로 여러 노드가 같은 DB를 써도 서로 다른 블록을 받는다.
+ */
+public class PooledLoSequenceGenerator extends SequenceStyleGenerator {
+    public static final String BLOCK_SIZE = "study.id.block_size";
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private int blockSize;
+    private int initialValue;
+    private Counter refillCounter;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        blockSize = ConfigurationHelper.getInt(BLOCK_SIZE, serviceRegistry.getService(ConfigurationService.class).getSettings(),
+                DEFAULT_BLOCK_SIZE);
+        initialValue = ConfigurationHelper.getInt(INITIAL_PARAM, params, DEFAULT_INITIAL_VALUE);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+        refillCounter = Metrics.counter("jpa.id.block.refills", "sequence", params.getProperty(SEQUENCE_PARAM));
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        Serializable id = super.generate(session, object);
+        // pooled-lo는 블록의 첫 번째 식별자로 시퀀스 값을 그대로 사용하므로 이때가 시퀀스를 호출한 시점이다.
+        if ((((Number) id).longValue() - initialValue) % blockSize == 0) {
+            refillCounter.increment();
+        }
+        return id;
+    }
+}
@@ -1,6 +1,16 @@
 package study.springdatajpa.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+import org.hibernate.annotations.LazyGroup;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -9,13 +19,31 @@ import java.util.List;
 @ToString(of = {"id", "name"})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Getter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 @Entity
 public class Team {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_id_generator")
+    @GenericGenerator(name = "team_id_generator", strategy = "study.springdatajpa.entity.PooledLoSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "team_seq"))
     @Column(name = "team_id")
     private Long id;
+    @Version
+    private Long version;
     private String name;
+    // members 컬렉션을 로딩하지 않고도 팀의 회원 수를 알 수 있도록 조회할 때 계산한다.
+    // 컬럼에 저장하지 않으므로 동시에 가입해도 팀의 버전이 충돌하지 않고, 대량 삭제나 CSV 가져오기 후에도 어긋나지 않는다.
+    // 영속성 컨텍스트 안에서 바꾼 값은 현재 트랜잭션에서만 보이며, 팀 캐시는 TeamCacheEvictionListener가 비운다.
+    // 팀을 조회할 때마다 서브쿼리가 실행되지 않도록 처음 접근할 때 따로 계산하고, member의 team_id 인덱스로 센다.
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("memberCount")
+    @Formula("(select count(*) from member m where m.team_id = team_id)")
+    private int memberCount;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members")
+    @LazyCollection(LazyCollectionOption.EXTRA)
+    // 회원의 가입과 탈퇴는 회원 행의 버전으로 지키므로 컬렉션이 바뀌어도 팀의 버전은 올리지 않는다.
+    @OptimisticLock(excluded = true)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
@@ -23,4 +51,18 @@ public class Team {
     public Team(String name) {
         this.name = name;
     }
+
+    // 초기화되지 않은 PersistentBag은 연관관계의 주인이 아닌 쪽에 add 하면 컬렉션을 로딩하지 않고 큐에 쌓아 둔다.
+    void addMember(Member member) {
+        members.add(member);
+        memberCount++;
+    }
+
+    // remove는 컬렉션을 초기화하므로 이미 로딩된 경우에만 컬렉션에서 제거한다.
+    void removeMember(Member member) {
+        if (Hibernate.isInitialized(members)) {
+            members.remove(member);
+        }
+        memberCount--;
+    }
 }
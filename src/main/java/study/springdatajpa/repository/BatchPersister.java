@@ -0,0 +1,43 @@
+package study.springdatajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.springdatajpa.support.AuditingContext;
+
+import javax.persistence.EntityManager;
+/**
+ * batch_size 단위로 flush 해서 insert를 JDBC 배치로 묶고, 매번 clear 해서 영속성 컨텍스트가 커지지 않게 한다.
+ * clear로 인해 호출 전에 영속 상태였던 엔티티와 반환된 엔티티는 모두 준영속 상태가 된다.
+ * 여러 엔티티가 함께 참조하는 팀 같은 연관 엔티티도 첫 배치 이후에는 준영속 상태이므로, 그 뒤에 바꾼 값은 DB에 반영되지 않는다.
+ * 전체 저장은 {@link AuditingContext#inBatch} 범위 안에서 실행되므로 모든 엔티티에 같은 생성 시각과 작성자가 기록된다.
+ * 저장한 엔티티를 모아 두지 않고 개수만 반환하므로 Iterable을 지연 생성해서 넘기면 메모리 사용량이 batch_size로 제한된다.
+ * 식별자는 넘긴 엔티티에 채워진다.
+ */
+@Component
+public class BatchPersister {
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public BatchPersister(EntityManager entityManager, @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    public long persistAll(Iterable<?> entities) {
+        return AuditingContext.inBatch(() -> persistInChunks(entities));
+    }
+
+    private long persistInChunks(Iterable<?> entities) {
+        long count = 0;
+        for (Object entity : entities) {
+            entityManager.persist(entity);
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return count;
+    }
+}
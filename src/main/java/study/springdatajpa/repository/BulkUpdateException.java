@@ -0,0 +1,14 @@
+package study.springdatajpa.repository;
+
+import lombok.Getter;
+
+@Getter
+public class BulkUpdateException extends RuntimeException {
+    // BulkUpdateOptions.resumeFrom 으로 넘겨서 이어서 실행할 수 있다.
+    private final BulkUpdateProgress progress;
+
+    public BulkUpdateException(BulkUpdateProgress progress, Throwable cause) {
+        super("벌크 업데이트가 " + progress.getCompletedChunks().size() + "/" + progress.getTotalChunks() + " 청크까지 완료된 후 실패했습니다.", cause);
+        this.progress = progress;
+    }
+}
@@ -0,0 +1,22 @@
+package study.springdatajpa.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+public class BulkUpdateOptions {
+    private final int chunkSize;
+    private final int parallelism;
+    // 실패한 작업의 진행 상황을 넘기면 이미 완료된 청크는 건너뛴다.
+    private final BulkUpdateProgress resumeFrom;
+
+    @Builder
+    public BulkUpdateOptions(Integer chunkSize, Integer parallelism, BulkUpdateProgress resumeFrom) {
+        this.chunkSize = (chunkSize != null) ? chunkSize : 1000;
+        this.parallelism = (parallelism != null) ? parallelism : 1;
+        this.resumeFrom = resumeFrom;
+        if (this.chunkSize < 1 || this.parallelism < 1) {
+            throw new IllegalArgumentException("chunkSize와 parallelism은 1 이상이어야 합니다.");
+        }
+    }
+}
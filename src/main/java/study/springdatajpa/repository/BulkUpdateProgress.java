@@ -0,0 +1,50 @@
+package study.springdatajpa.repository;
+
+import lombok.Getter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 청크 단위 벌크 업데이트의 진행 상황. 청크 경계(firstId, lastId, chunkSize)를 함께 보관해서
+ * 재시도할 때도 처음과 같은 범위로 나누고, 커밋된 청크는 다시 실행하지 않는다.
+ */
+@Getter
+public class BulkUpdateProgress {
+    private final long firstId;
+    private final long lastId;
+    private final int chunkSize;
+    private final Set<Long> completedChunks = new ConcurrentSkipListSet<>();
+    private final AtomicLong updatedRows = new AtomicLong();
+
+    public BulkUpdateProgress(long firstId, long lastId, int chunkSize) {
+        this.firstId = firstId;
+        this.lastId = lastId;
+        this.chunkSize = chunkSize;
+    }
+
+    public long getTotalChunks() {
+        if (lastId < firstId) {
+            return 0;
+        }
+        return (lastId - firstId) / chunkSize + 1;
+    }
+
+    public long getUpdatedRows() {
+        return updatedRows.get();
+    }
+
+    public boolean isDone() {
+        return completedChunks.size() == getTotalChunks();
+    }
+
+    boolean isCompleted(long chunkStart) {
+        return completedChunks.contains(chunkStart);
+    }
+
+    void complete(long chunkStart, int rows) {
+        updatedRows.addAndGet(rows);
+        completedChunks.add(chunkStart);
+    }
+}
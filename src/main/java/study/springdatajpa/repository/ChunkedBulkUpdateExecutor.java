@@ -0,0 +1,221 @@
+package study.springdatajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 하나의 벌크 업데이트를 id 범위 청크로 나누고, 청크마다 짧은 트랜잭션으로 실행한다.
+ * 한 번에 잠그는 row 수가 청크 크기로 제한된다.
+ * JPQL 벌크 연산은 하이버네이트가 엔티티의 2차 캐시 영역 전체를 비우므로, 청크마다 바꿀 row의 id를 잠가서 읽고
+ * SQL로 업데이트한 뒤 그 id의 캐시만 비운다. 쿼리 캐시는 엔티티 테이블의 타임스탬프를 갱신해서 무효화한다.
+ * 청크마다 새로운 트랜잭션을 사용하므로 호출한 쪽이 이미 읽어 둔 엔티티에는 반영되지 않는다.
+ * 호출한 쪽의 영속성 컨텍스트에 이전 값이 남지 않도록 트랜잭션 안에서는 호출할 수 없다.
+ */
+@Slf4j
+@Component
+class ChunkedBulkUpdateExecutor {
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final Executor executor;
+
+    ChunkedBulkUpdateExecutor(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                              @Qualifier("bulkUpdateExecutor") Executor executor) {
+        this.entityManager = entityManager;
+        this.transactionManager = transactionManager;
+        this.executor = executor;
+    }
+
+    /**
+     * set과 condition은 엔티티 테이블의 컬럼으로 쓴 SQL 조각이다. condition을 만족하는 row만 set으로 바꾼다.
+     * 엔티티 자신의 캐시만 비우므로 set으로 연관관계 컬럼을 바꾸면 안 된다.
+     * SQL 조각을 그대로 받으므로 이 패키지의 리포지토리에서만 상수로 넘긴다.
+     */
+    BulkUpdateProgress execute(Class<?> entityClass, String set, String condition, Map<String, Object> parameters, BulkUpdateOptions options) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("청크마다 새로운 트랜잭션을 사용하므로 트랜잭션 밖에서 호출해야 합니다.");
+        }
+        BulkUpdateProgress progress = (options.getResumeFrom() != null) ? options.getResumeFrom() : createProgress(entityClass, options);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        ChunkStatements statements = new ChunkStatements(entityClass, set, condition);
+
+        List<Long> chunkStarts = new ArrayList<>();
+        for (long chunkStart = progress.getFirstId(); chunkStart <= progress.getLastId(); chunkStart += progress.getChunkSize()) {
+            if (!progress.isCompleted(chunkStart)) {
+                chunkStarts.add(chunkStart);
+            }
+        }
+
+        if (options.getParallelism() == 1) {
+            for (Long chunkStart : chunkStarts) {
+                try {
+                    executeChunk(transactionTemplate, statements, parameters, progress, chunkStart);
+                } catch (RuntimeException e) {
+                    throw new BulkUpdateException(progress, e);
+                }
+            }
+            return progress;
+        }
+
+        // 공유 실행기에 parallelism 개의 작업자만 넣고, 작업자는 남은 청크를 하나씩 가져가서 실행한다.
+        Queue<Long> pendingChunks = new ConcurrentLinkedQueue<>(chunkStarts);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < Math.min(options.getParallelism(), chunkStarts.size()); i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                Long chunkStart;
+                while (!failed.get() && (chunkStart = pendingChunks.poll()) != null) {
+                    try {
+                        executeChunk(transactionTemplate, statements, parameters, progress, chunkStart);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }
+            }, executor));
+        }
+        Throwable failure = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                    cancelAll(futures);
+                }
+            } catch (CancellationException e) {
+                // 첫 번째 실패 후에 시작하지 못한 작업자다.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.set(true);
+                cancelAll(futures);
+                failure = (failure == null) ? e : failure;
+                break;
+            }
+        }
+        if (failure != null) {
+            throw new BulkUpdateException(progress, failure);
+        }
+        return progress;
+    }
+
+    // 아직 시작하지 않은 작업자는 실행하지 않는다. 실행 중인 청크는 트랜잭션을 끝까지 마치고 멈춘다.
+    private static void cancelAll(List<CompletableFuture<Void>> futures) {
+        futures.forEach(future -> future.cancel(false));
+    }
+
+    private BulkUpdateProgress createProgress(Class<?> entityClass, BulkUpdateOptions options) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+        String idName = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        Object[] range = (Object[]) entityManager.createQuery("select min(e." + idName + "), max(e." + idName + ") from " + entityType.getName() + " e")
+                .getSingleResult();
+        if (range[0] == null) {
+            return new BulkUpdateProgress(0, -1, options.getChunkSize());
+        }
+        return new BulkUpdateProgress(((Number) range[0]).longValue(), ((Number) range[1]).longValue(), options.getChunkSize());
+    }
+
+    private void executeChunk(TransactionTemplate transactionTemplate, ChunkStatements statements, Map<String, Object> parameters,
+                              BulkUpdateProgress progress, long chunkStart) {
+        long chunkEnd = Math.min(chunkStart + progress.getChunkSize() - 1, progress.getLastId());
+        Integer rows = transactionTemplate.execute(status -> {
+            Query select = entityManager.createNativeQuery(statements.select);
+            bind(select, parameters);
+            @SuppressWarnings("unchecked")
+            List<Long> ids = ((List<Number>) select.setParameter("fromId", chunkStart)
+                    .setParameter("toId", chunkEnd)
+                    .getResultList())
+                    .stream()
+                    .map(Number::longValue)
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            Query update = entityManager.createNativeQuery(statements.update);
+            bind(update, parameters);
+            // 빈 쿼리 공간을 지정해서 하이버네이트가 엔티티 캐시 영역 전체를 비우지 않게 한다.
+            update.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+            int updatedRows = update.setParameter("ids", ids)
+                    .executeUpdate();
+            evictAfterCompletion(statements, ids);
+            return updatedRows;
+        });
+        progress.complete(chunkStart, rows);
+        log.info("bulk update chunk [{}, {}] updated {} rows ({}/{})",
+                chunkStart, chunkEnd, rows, progress.getCompletedChunks().size(), progress.getTotalChunks());
+    }
+
+    // set과 condition에 쓰인 파라미터만 바인딩한다.
+    private void bind(Query query, Map<String, Object> parameters) {
+        Set<String> names = query.getParameters().stream()
+                .map(Parameter::getName)
+                .collect(Collectors.toSet());
+        parameters.forEach((name, value) -> {
+            if (names.contains(name)) {
+                query.setParameter(name, value);
+            }
+        });
+    }
+
+    /**
+     * 커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시에 넣을 수 있으므로 트랜잭션이 끝난 후에 한 번 더 비운다.
+     * 쿼리 캐시는 하이버네이트의 벌크 연산처럼 커밋 전에 미리 무효화하고 커밋 후에 다시 무효화한다.
+     */
+    private void evictAfterCompletion(ChunkStatements statements, List<Long> ids) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        TimestampsCache timestampsCache = session.getFactory().getCache().getTimestampsCache();
+        ids.forEach(id -> session.getFactory().getCache().evictEntityData(statements.entityClass, id));
+        timestampsCache.preInvalidate(statements.querySpaces, session);
+        session.getActionQueue().registerProcess((success, s) -> {
+            ids.forEach(id -> s.getFactory().getCache().evictEntityData(statements.entityClass, id));
+            timestampsCache.invalidate(statements.querySpaces, s);
+        });
+    }
+
+    private class ChunkStatements {
+        private final Class<?> entityClass;
+        private final String[] querySpaces;
+        private final String select;
+        private final String update;
+
+        private ChunkStatements(Class<?> entityClass, String set, String condition) {
+            AbstractEntityPersister persister = (AbstractEntityPersister) entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getMetamodel()
+                    .entityPersister(entityClass);
+            String table = persister.getTableName();
+            String id = persister.getIdentifierColumnNames()[0];
+            this.entityClass = entityClass;
+            this.querySpaces = (String[]) persister.getQuerySpaces();
+            this.select = "select " + id + " from " + table + " where " + id + " between :fromId and :toId and (" + condition + ") for update";
+            this.update = "update " + table + " set " + set + " where " + id + " in (:ids)";
+        }
+    }
+}
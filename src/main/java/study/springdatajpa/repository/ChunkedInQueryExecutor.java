@@ -0,0 +1,68 @@
+package study.springdatajpa.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * 큰 in 절 파라미터 목록을 고정 크기 청크로 나눠서 조회하고 청크 순서대로 합친다.
+ * 청크 크기를 2의 거듭제곱으로 두고 in_clause_parameter_padding을 켜서 쿼리 플랜 종류가 늘어나지 않게 한다.
+ */
+@Component
+public class ChunkedInQueryExecutor {
+    private final int chunkSize;
+    private final Executor executor;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public ChunkedInQueryExecutor(@Value("${query.in-clause.chunk-size:512}") int chunkSize,
+                                  @Qualifier("inClauseQueryExecutor") Executor executor,
+                                  PlatformTransactionManager transactionManager) {
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 트랜잭션 안에서 호출하면 반환한 엔티티가 호출한 쪽의 영속성 컨텍스트에 남도록 청크를 차례대로 조회한다.
+     * 트랜잭션 밖에서 호출하면 어차피 준영속 엔티티가 반환되므로 청크마다 읽기 전용 트랜잭션으로 동시에 조회한다.
+     */
+    public <T, R> List<R> query(List<T> values, Function<List<T>, List<R>> chunkQuery) {
+        if (values.size() <= chunkSize) {
+            return chunkQuery.apply(values);
+        }
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            chunks.add(values.subList(from, Math.min(from + chunkSize, values.size())));
+        }
+
+        List<R> results = new ArrayList<>();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            chunks.forEach(chunk -> results.addAll(chunkQuery.apply(chunk)));
+            return results;
+        }
+        List<CompletableFuture<List<R>>> futures = new ArrayList<>();
+        for (List<T> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> readOnlyTransactionTemplate.execute(status -> chunkQuery.apply(chunk)), executor));
+        }
+        try {
+            futures.forEach(future -> results.addAll(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+}
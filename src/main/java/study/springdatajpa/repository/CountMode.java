@@ -0,0 +1,14 @@
+package study.springdatajpa.repository;
+
+/**
+ * Page를 반환하는 조회에서 전체 개수를 구하는 방법.
+ * 어떤 방법이든 첫 페이지에 모든 결과가 담기거나 마지막 페이지가 덜 찬 경우에는 count 쿼리를 실행하지 않는다.
+ */
+public enum CountMode {
+    // 매번 count 쿼리를 실행한다.
+    EXACT,
+    // 쿼리와 파라미터별로 count 결과를 TTL 동안 캐시하고, 회원이 변경되면 비운다.
+    CACHED,
+    // DB 통계의 테이블 row 수 추정치를 사용한다. 조건이 없는 조회에서만 사용할 수 있다.
+    ESTIMATED
+}
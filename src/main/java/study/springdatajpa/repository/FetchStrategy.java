@@ -0,0 +1,15 @@
+package study.springdatajpa.repository;
+
+/**
+ * 조회한 엔티티의 컬렉션 연관관계를 어떻게 초기화할지 호출마다 선택한다.
+ * 서브쿼리 페치(@Fetch(FetchMode.SUBSELECT))는 매핑에 고정되고 페치 프로필로도 바꿀 수 없어서 호출마다 고를 수 없으므로 제공하지 않는다.
+ */
+public enum FetchStrategy {
+    // 컬렉션을 초기화하지 않는다. default_batch_fetch_size(100)가 설정되어 있으므로 처음 사용할 때
+    // 영속성 컨텍스트에 있는 다른 엔티티의 컬렉션도 최대 100개씩 in 절로 묶어서 함께 초기화한다.
+    LAZY,
+    // LAZY와 같은 배치 로딩을 반환하기 전에 바로 실행한다. 준영속 상태가 된 뒤에도 컬렉션을 읽을 수 있다.
+    BATCH,
+    // 페치 조인으로 처음 조회할 때 함께 초기화한다.
+    JOIN
+}
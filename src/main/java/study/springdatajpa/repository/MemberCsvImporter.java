@@ -0,0 +1,287 @@
+package study.springdatajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.dialect.Dialect;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.entity.Team;
+import study.springdatajpa.support.AuditingContext;
+import study.springdatajpa.support.MemberChangeListener;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * username,age,team 헤더를 가진 CSV를 읽어서 회원을 대량으로 저장한다.
+ * 읽기 작업이 applicationTaskExecutor에서 줄을 파싱해서 batch_size 단위로 크기가 제한된 큐에 넣고, 호출한 스레드가 큐에서 꺼내
+ * 팀 이름을 메모리에 올려 둔 팀 id로 바꾼 뒤 JDBC 배치로 insert 한다. 영속성 컨텍스트를 거치지 않으므로
+ * 엔티티 생성, 더티 체킹, Team.members 초기화 비용이 없다. 배치마다 커밋하므로 중간에 실패해도 앞선 배치는 남는다.
+ * 없는 팀 이름은 팀을 새로 만든다.
+ * <p>
+ * 세 컬럼 모두 쉼표와 줄바꿈이 없는 값만 받는 제한된 형식이다. 따옴표로 감싼 값(RFC 4180의 quoted field)은
+ * 해석하지 않고 그 row를 거부한다. 값 앞뒤의 공백은 제거한다.
+ */
+@Slf4j
+@Component
+public class MemberCsvImporter {
+    private static final String HEADER = "username,age,team";
+    private static final int QUEUE_CAPACITY = 8;
+    private static final int MAX_REJECTIONS = 100;
+    private static final String INSERT_SQL = "insert into member (member_id, version, username, age, team_id, create_date, last_modified_date, create_by, last_modified_by) "
+            + "values (?, 0, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TEAM_SQL = "insert into team (team_id, version, name) values (?, 0, ?)";
+
+    // 읽기 스레드가 마지막에 넣는 종료 표시. 참조로 비교한다.
+    private static final List<MemberRow> END = new ArrayList<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditorAware<String> auditorAware;
+    private final MemberChangeListener memberChangeListener;
+    private final AsyncTaskExecutor executor;
+    private final int batchSize;
+    private final int idBlockSize;
+
+    public MemberCsvImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             EntityManagerFactory entityManagerFactory, AuditorAware<String> auditorAware,
+                             MemberChangeListener memberChangeListener,
+                             @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize,
+                             @Value("${spring.jpa.properties.study.id.block_size:50}") int idBlockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditorAware = auditorAware;
+        this.memberChangeListener = memberChangeListener;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.idBlockSize = idBlockSize;
+    }
+
+    public MemberImportReport importCsv(Reader reader) {
+        long start = System.nanoTime();
+        // 엔티티 매니저 팩토리는 백그라운드에서 만들어지므로 생성자가 아니라 사용할 때 꺼낸다.
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        BlockingQueue<List<MemberRow>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Rejections rejections = new Rejections();
+        AtomicLong readRows = new AtomicLong();
+        AtomicReference<RuntimeException> readFailure = new AtomicReference<>();
+        Future<?> producer = executor.submit(() -> read(reader, queue, readRows, rejections, readFailure));
+
+        Map<String, Long> teamIds = loadTeamIds();
+        String auditor = auditorAware.getCurrentAuditor().orElse(null);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        IdBlock ids = new IdBlock(dialect.getSequenceNextValString("member_seq"));
+        IdBlock teamIdBlock = new IdBlock(dialect.getSequenceNextValString("team_seq"));
+        long insertedRows = 0;
+        try {
+            List<MemberRow> rows;
+            while ((rows = queue.take()) != END) {
+                insertedRows += insert(rows, teamIds, ids, teamIdBlock, auditor);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("CSV 가져오기가 중단되었습니다.", e);
+        } finally {
+            // 큐가 가득 차서 기다리는 읽기 작업을 깨워서 끝낸다.
+            producer.cancel(true);
+            evictCaches(sessionFactory);
+        }
+        if (readFailure.get() != null) {
+            throw readFailure.get();
+        }
+
+        MemberImportReport report = new MemberImportReport(readRows.get(), insertedRows, rejections.count.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rejections.samples());
+        log.info("member csv import: read {}, inserted {}, rejected {} in {} ms ({} rows/s)", report.getReadRows(),
+                report.getInsertedRows(), report.getRejectedRows(), report.getElapsedMillis(), (long) report.getRowsPerSecond());
+        return report;
+    }
+
+    private void read(Reader reader, BlockingQueue<List<MemberRow>> queue, AtomicLong readRows,
+                      Rejections rejections, AtomicReference<RuntimeException> readFailure) {
+        try {
+            BufferedReader in = new BufferedReader(reader);
+            String line = in.readLine();
+            if (line == null || !HEADER.equalsIgnoreCase(line.trim())) {
+                throw new IllegalArgumentException("CSV 헤더는 " + HEADER + " 이어야 합니다.");
+            }
+            long lineNumber = 1;
+            List<MemberRow> rows = new ArrayList<>(batchSize);
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                readRows.incrementAndGet();
+                MemberRow row = parse(line, lineNumber, rejections);
+                if (row == null) {
+                    continue;
+                }
+                rows.add(row);
+                if (rows.size() == batchSize) {
+                    queue.put(rows);
+                    rows = new ArrayList<>(batchSize);
+                }
+            }
+            if (!rows.isEmpty()) {
+                queue.put(rows);
+            }
+        } catch (IOException e) {
+            readFailure.set(new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            readFailure.set(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private MemberRow parse(String line, long lineNumber, Rejections rejections) {
+        if (line.indexOf('"') >= 0) {
+            rejections.add(lineNumber, "따옴표로 감싼 값은 지원하지 않습니다.");
+            return null;
+        }
+        String[] columns = line.split(",", -1);
+        if (columns.length != 3) {
+            rejections.add(lineNumber, "컬럼 수가 3개가 아닙니다.");
+            return null;
+        }
+        String username = columns[0].trim();
+        if (username.isEmpty()) {
+            rejections.add(lineNumber, "username이 비어 있습니다.");
+            return null;
+        }
+        int age;
+        try {
+            age = Integer.parseInt(columns[1].trim());
+        } catch (NumberFormatException e) {
+            rejections.add(lineNumber, "age가 숫자가 아닙니다: " + columns[1]);
+            return null;
+        }
+        if (age < 0) {
+            rejections.add(lineNumber, "age는 0 이상이어야 합니다: " + age);
+            return null;
+        }
+        String teamName = columns[2].trim();
+        return new MemberRow(lineNumber, username, age, teamName.isEmpty() ? null : teamName);
+    }
+
+    private int insert(List<MemberRow> rows, Map<String, Long> teamIds, IdBlock ids, IdBlock teamIdBlock, String auditor) {
+        LocalDateTime now = AuditingContext.now();
+        List<Object[]> batchArgs = new ArrayList<>(rows.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (MemberRow row : rows) {
+                Long teamId = (row.teamName != null) ? teamIds.computeIfAbsent(row.teamName, name -> insertTeam(teamIdBlock, name)) : null;
+                batchArgs.add(new Object[]{ids.next(), row.username, row.age, teamId, now, now, auditor, auditor});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+        });
+        return batchArgs.size();
+    }
+
+    // 같은 배치의 회원과 같은 트랜잭션에서 만든다. 동시에 가져오는 다른 요청과는 같은 이름의 팀이 중복으로 만들어질 수 있다.
+    private Long insertTeam(IdBlock teamIdBlock, String name) {
+        long teamId = teamIdBlock.next();
+        jdbcTemplate.update(INSERT_TEAM_SQL, teamId, name);
+        return teamId;
+    }
+
+    /**
+     * JDBC로 직접 변경했으므로 회원, 팀 엔티티와 팀의 회원 컬렉션, 쿼리 캐시와 회원으로 만든 캐시를 비운다.
+     * 다른 엔티티의 2차 캐시 영역은 그대로 둔다.
+     */
+    private void evictCaches(SessionFactoryImplementor sessionFactory) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Member.class);
+        cache.evictEntityData(Team.class);
+        cache.evictCollectionData(Team.class.getName() + ".members");
+        cache.evictQueryRegions();
+        memberChangeListener.onBulkChange();
+    }
+
+    private Map<String, Long> loadTeamIds() {
+        Map<String, Long> teamIds = new HashMap<>();
+        jdbcTemplate.query("select team_id, name from team", rs -> {
+            teamIds.putIfAbsent(rs.getString("name"), rs.getLong("team_id"));
+        });
+        return teamIds;
+    }
+
+    // PooledLoSequenceGenerator와 같은 pooled-lo 방식으로 member_seq에서 block_size 개씩 식별자를 할당받는다.
+    private class IdBlock {
+        private final String nextIdSql;
+        private long next;
+        private int remaining;
+
+        IdBlock(String nextIdSql) {
+            this.nextIdSql = nextIdSql;
+        }
+
+        long next() {
+            if (remaining == 0) {
+                next = jdbcTemplate.queryForObject(nextIdSql, Long.class);
+                remaining = idBlockSize;
+            }
+            remaining--;
+            return next++;
+        }
+    }
+
+    private static class MemberRow {
+        private final long lineNumber;
+        private final String username;
+        private final int age;
+        private final String teamName;
+
+        MemberRow(long lineNumber, String username, int age, String teamName) {
+            this.lineNumber = lineNumber;
+            this.username = username;
+            this.age = age;
+            this.teamName = teamName;
+        }
+    }
+
+    private static class Rejections {
+        private final AtomicLong count = new AtomicLong();
+        private final List<String> samples = Collections.synchronizedList(new ArrayList<>());
+
+        void add(long lineNumber, String reason) {
+            if (count.incrementAndGet() <= MAX_REJECTIONS) {
+                samples.add("line " + lineNumber + ": " + reason);
+            }
+        }
+
+        List<String> samples() {
+            synchronized (samples) {
+                return new ArrayList<>(samples);
+            }
+        }
+    }
+}
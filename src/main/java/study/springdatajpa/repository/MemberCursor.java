@@ -0,0 +1,44 @@
+package study.springdatajpa.repository;
+
+import lombok.Getter;
+import study.springdatajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋 페이징에서 마지막으로 읽은 회원의 (age, member_id)를 담는 커서.
+ * 클라이언트에는 Base64로 인코딩한 불투명한 토큰으로만 노출한다.
+ */
+@Getter
+public class MemberCursor {
+    private static final String DELIMITER = ":";
+
+    private final int age;
+    private final Long id;
+
+    public MemberCursor(int age, Long id) {
+        this.age = age;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getAge(), member.getId());
+    }
+
+    public static MemberCursor decode(String token) {
+        try {
+            String[] keys = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(DELIMITER);
+            return new MemberCursor(Integer.parseInt(keys[0]), Long.parseLong(keys[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("cursor: " + token + " 는 올바르지 않은 커서입니다.", e);
+        }
+    }
+
+    public String encode() {
+        String raw = age + DELIMITER + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,29 @@
+package study.springdatajpa.repository;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * CSV 회원 가져오기 결과. rejections에는 거부된 row 중 앞쪽 일부만 줄 번호와 사유를 담는다.
+ */
+@Getter
+public class MemberImportReport {
+    private final long readRows;
+    private final long insertedRows;
+    private final long rejectedRows;
+    private final long elapsedMillis;
+    private final List<String> rejections;
+
+    public MemberImportReport(long readRows, long insertedRows, long rejectedRows, long elapsedMillis, List<String> rejections) {
+        this.readRows = readRows;
+        this.insertedRows = insertedRows;
+        this.rejectedRows = rejectedRows;
+        this.elapsedMillis = elapsedMillis;
+        this.rejections = rejections;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? insertedRows : insertedRows * 1000.0 / elapsedMillis;
+    }
+}
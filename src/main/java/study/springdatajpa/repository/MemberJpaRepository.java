@@ -1,27 +1,53 @@
 package study.springdatajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.EventSource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.springdatajpa.entity.Member;
+import study.springdatajpa.support.MemberChangeListener;
+import study.springdatajpa.support.OptimisticRetry;
+import study.springdatajpa.support.TeamCacheEvictionListener;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RequiredArgsConstructor
 @Repository
 public class MemberJpaRepository {
     private final EntityManager entityManager;
+    private final BatchPersister batchPersister;
+    private final ChunkedBulkUpdateExecutor chunkedBulkUpdateExecutor;
+    private final MemberChangeListener memberChangeListener;
 
     public Member save(Member member) {
         entityManager.persist(member);
         return member;
     }
 
+    /**
+     * {@link BatchPersister}로 저장한다. 저장하는 모든 엔티티에는 같은 생성 시각과 작성자가 기록된다. 저장한 개수를 반환한다.
+     */
+    public long saveAllBatched(Iterable<Member> members) {
+        return batchPersister.persistAll(members);
+    }
+
     public void delete(Member member) {
         entityManager.remove(member);
     }
 
+    // 다른 트랜잭션이 먼저 회원을 수정해서 버전이 맞지 않으면, 새 트랜잭션에서 회원을 다시 읽고 이름을 바꾼다.
+    @OptimisticRetry
+    @Transactional
+    public Member changeUsername(Long id, String username) {
+        Member member = findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("id: " + id + " 회원은 존재하지 않습니다."));
+        member.setUsername(username);
+        return member;
+    }
+
     public Optional<Member> findById(Long id) {
         return Optional.ofNullable(entityManager.find(Member.class, id));
     }
@@ -63,9 +89,24 @@ public class MemberJpaRepository {
                 .getSingleResult();
     }
 
+    // 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 이전 값이 남지 않도록 비우고, 팀 캐시와 조회 캐시도 비운다.
+    @Transactional
     public int bulkAgePlus(int age) {
-        return entityManager.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        int rows = entityManager.createQuery(MemberRepositoryImpl.BULK_AGE_PLUS)
                 .setParameter("age", age)
                 .executeUpdate();
+        entityManager.clear();
+        TeamCacheEvictionListener.evictAll(entityManager.unwrap(EventSource.class));
+        memberChangeListener.onBulkChange();
+        return rows;
+    }
+
+    public BulkUpdateProgress bulkAgePlus(int age, BulkUpdateOptions options) {
+        try {
+            return chunkedBulkUpdateExecutor.execute(Member.class, MemberRepositoryImpl.BULK_AGE_PLUS_SET,
+                    MemberRepositoryImpl.BULK_AGE_PLUS_CONDITION, Map.of("age", age), options);
+        } finally {
+            memberChangeListener.onBulkChange();
+        }
     }
 }
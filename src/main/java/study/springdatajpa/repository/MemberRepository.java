@@ -4,19 +4,33 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 import study.springdatajpa.dto.MemberDto;
+import study.springdatajpa.dto.MemberSummary;
 import study.springdatajpa.entity.Member;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
+    // 팀이 없는 회원도 조회되도록 left join을 사용하고, count 쿼리에서는 조인을 생략한다.
+    String MEMBER_DTOS_QUERY = "select new study.springdatajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t";
+    String MEMBER_COUNT_QUERY = "select count(m) from Member m";
+    // 비동기 조회에 거는 JDBC 쿼리 타임아웃(ms). 호출한 쪽이 기다리지 않게 된 뒤에도 DB에서 쿼리가 계속 실행되지 않도록 한다.
+    String ASYNC_QUERY_TIMEOUT_MILLIS = "5000";
+
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
 
     // Named Query가 메서드 이름으로 JPQL을 생성하는 것보다 우선순위가 높기 때문에 @Query 애노테이션을 생략해도 된다.
     @Query(name = "Member.findByUsername")
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "member-byUsername")
+    })
     List<Member> findByUsername(@Param("username") String username);
 
     @Query("select m from Member m where m.username = :username and m.age = :age")
@@ -28,11 +42,18 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.springdatajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDtos();
 
-    @Query("select m from Member m where m.username in :usernames")
-    List<Member> findByUsernames(@Param("usernames") List<String> usernames);
+    @Query(value = MEMBER_DTOS_QUERY, countQuery = MEMBER_COUNT_QUERY)
+    Page<MemberDto> findMemberDtos(Pageable pageable);
+
+    @Query("select new study.springdatajpa.dto.MemberSummary(m.id, m.username) from Member m where m.id = :id")
+    Optional<MemberSummary> findSummaryById(@Param("id") Long id);
 
     List<Member> findMemberListByUsername(String username);
 
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "member-byUsername")
+    })
     Member findMemberByUsername(String username);
 
     Optional<Member> findOptionalMemberByUsername(String username);
@@ -40,9 +61,26 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     //@Query(value = "select m from Member m left join m.team t", countQuery = "select count(m.username) from Member m")
     Page<Member> findByAge(int age, Pageable pageable);
 
-    @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
+    // 아래 비동기 메서드는 repositoryQueryExecutor 스레드에서 각자 읽기 전용 트랜잭션을 열고 실행한다.
+    // 호출한 쪽의 트랜잭션과 영속성 컨텍스트는 다른 스레드로 넘어가지 않으므로, 반환한 엔티티는 준영속 상태다.
+    // 그래서 트랜잭션 밖에서 접근할 연관(team)은 미리 함께 조회한다.
+    @Async("repositoryQueryExecutor")
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"team"})
+    @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = ASYNC_QUERY_TIMEOUT_MILLIS))
+    CompletableFuture<Page<Member>> findAsyncByAge(int age, Pageable pageable);
+
+    @Async("repositoryQueryExecutor")
+    @Transactional(readOnly = true)
+    @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = ASYNC_QUERY_TIMEOUT_MILLIS))
+    @Query(value = MEMBER_DTOS_QUERY, countQuery = MEMBER_COUNT_QUERY)
+    CompletableFuture<Page<MemberDto>> findMemberDtosAsync(Pageable pageable);
+
+    @Async("repositoryQueryExecutor")
+    @Transactional(readOnly = true)
+    @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = ASYNC_QUERY_TIMEOUT_MILLIS))
+    @Query("select m.username from Member m")
+    CompletableFuture<List<String>> findUsernamesAsync();
 
 //    @Query("select m from Member m join fetch m.team")
 //    List<Member> findMembersWithTeam();
@@ -56,4 +94,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Member findLockByUsername(String username);
+
+    // 잠긴 row가 하나라도 있으면 기다리지 않고 바로 예외가 발생한다.
+    // 하이버네이트의 H2Dialect는 SKIP LOCKED, NOWAIT 락 옵션을 SQL로 만들지 않기 때문에 네이티브 쿼리를 사용한다.
+    @Query(value = "select * from member where age = :age order by member_id limit :limit for update nowait", nativeQuery = true)
+    List<Member> claimByAgeNowait(@Param("age") int age, @Param("limit") int limit);
 }
@@ -1,9 +1,52 @@
 package study.springdatajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.springdatajpa.dto.CursorPage;
+import study.springdatajpa.dto.MemberDto;
 import study.springdatajpa.entity.Member;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    // 많은 파라미터를 in 절 하나에 넣지 않도록 청크로 나눠서 조회한다.
+    List<Member> findByUsernames(List<String> usernames);
+
+    List<Member> findAllById(Iterable<Long> ids);
+
+    // 키셋 페이징: cursor가 null이면 첫 페이지를 조회한다.
+    CursorPage<Member> findAll(String cursor, int size);
+
+    CursorPage<Member> findByAge(int age, String cursor, int size);
+
+    Page<MemberDto> findMemberDtos(Pageable pageable, CountMode countMode);
+
+    // 조건이 있는 조회이므로 CountMode.ESTIMATED는 사용할 수 없다.
+    Page<Member> findByAge(int age, Pageable pageable, CountMode countMode);
+
+    // 트랜잭션 안에서 사용하고, 사용 후 반드시 close 해야 한다.
+    Stream<Member> streamAll(int fetchSize);
+
+    // 여러 워커가 동시에 호출해도 서로 기다리지 않도록 이미 잠긴 row는 건너뛰고 최대 limit 개를 잠근다. 트랜잭션 안에서 호출해야 한다.
+    List<Member> claimByAge(int age, int limit);
+
+    // 잠긴 row가 풀리기를 최대 timeout 동안 기다리고, 그래도 잠겨 있으면 예외가 발생한다. 트랜잭션 안에서 호출해야 한다.
+    List<Member> claimByAge(int age, int limit, Duration timeout);
+
+    // 벌크 연산은 엔티티 리스너를 거치지 않으므로 아래 메서드들은 회원으로 만든 캐시와 회원 수를 담은 팀 캐시를 직접 비운다.
+    void deleteAllInBatch();
+
+    void deleteAllInBatch(Iterable<Member> members);
+
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    // 실행 후 @Modifying(clearAutomatically = true)처럼 영속성 컨텍스트를 비운다.
+    int bulkAgePlus(int age);
+
+    // id 범위 청크마다 짧은 트랜잭션으로 나눠서 실행한다. 트랜잭션 밖에서 호출해야 한다.
+    BulkUpdateProgress bulkAgePlus(int age, BulkUpdateOptions options);
 }
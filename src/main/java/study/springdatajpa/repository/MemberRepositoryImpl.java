@@ -1,18 +1,280 @@
 package study.springdatajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.springdatajpa.dto.CursorPage;
+import study.springdatajpa.dto.MemberDto;
 import study.springdatajpa.entity.Member;
+import study.springdatajpa.support.MemberChangeListener;
+import study.springdatajpa.support.MemberCountCache;
+import study.springdatajpa.support.TeamCacheEvictionListener;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
+    private static final String CLAIM_BY_AGE = "select * from member where age = :age order by member_id limit :limit for update skip locked";
+    private static final String CLAIM_BY_AGE_H2 = "select * from member use index () where age = :age order by member_id limit :limit for update skip locked";
+    // MemberJpaRepository도 같은 벌크 연산을 사용한다.
+    static final String BULK_AGE_PLUS = "update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age";
+    // 청크는 SQL로 실행하므로 member 테이블의 컬럼 이름을 사용한다.
+    static final String BULK_AGE_PLUS_SET = "age = age + 1, version = version + 1";
+    static final String BULK_AGE_PLUS_CONDITION = "age >= :age";
+
     private final EntityManager entityManager;
+    private final ChunkedBulkUpdateExecutor chunkedBulkUpdateExecutor;
+    private final MemberCountCache memberCountCache;
+    private final MemberChangeListener memberChangeListener;
+    private final ChunkedInQueryExecutor chunkedInQueryExecutor;
 
     @Override
     public List<Member> findMemberCustom() {
         return entityManager.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
+
+    @Override
+    public List<Member> findByUsernames(List<String> usernames) {
+        return chunkedInQueryExecutor.query(usernames, chunk -> entityManager.createQuery("select m from Member m where m.username in :usernames", Member.class)
+                .setParameter("usernames", chunk)
+                .getResultList());
+    }
+
+    @Override
+    public List<Member> findAllById(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        return chunkedInQueryExecutor.query(idList, chunk -> entityManager.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", chunk)
+                .getResultList());
+    }
+
+    @Override
+    public CursorPage<Member> findAll(String cursor, int size) {
+        TypedQuery<Member> query;
+        if (cursor == null) {
+            query = entityManager.createQuery("select m from Member m left join fetch m.team" +
+                    " order by m.age, m.id", Member.class);
+        } else {
+            MemberCursor memberCursor = MemberCursor.decode(cursor);
+            // age >= :age를 따로 두어야 (age, member_id) 인덱스를 범위 조건으로 탈 수 있다.
+            query = entityManager.createQuery("select m from Member m left join fetch m.team" +
+                            " where m.age >= :age and (m.age > :age or m.id > :id)" +
+                            " order by m.age, m.id", Member.class)
+                    .setParameter("age", memberCursor.getAge())
+                    .setParameter("id", memberCursor.getId());
+        }
+        return toCursorPage(query, size);
+    }
+
+    @Override
+    public CursorPage<Member> findByAge(int age, String cursor, int size) {
+        Long lastId = 0L;
+        if (cursor != null) {
+            MemberCursor memberCursor = MemberCursor.decode(cursor);
+            if (memberCursor.getAge() != age) {
+                throw new IllegalArgumentException("cursor: " + cursor + " 는 age: " + age + " 조회에 사용할 수 없는 커서입니다.");
+            }
+            lastId = memberCursor.getId();
+        }
+        TypedQuery<Member> query = entityManager.createQuery("select m from Member m" +
+                        " where m.age = :age and m.id > :id" +
+                        " order by m.id", Member.class)
+                .setParameter("age", age)
+                .setParameter("id", lastId);
+        return toCursorPage(query, size);
+    }
+
+    @Override
+    public Page<MemberDto> findMemberDtos(Pageable pageable, CountMode countMode) {
+        String jpql = QueryUtils.applySorting(MemberRepository.MEMBER_DTOS_QUERY, pageable.getSort(), "m");
+        List<MemberDto> content = entityManager.createQuery(jpql, MemberDto.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        if (countMode == CountMode.ESTIMATED) {
+            return PageableExecutionUtils.getPage(content, pageable, this::estimateCount);
+        }
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(countMode, List.of("count(Member)"),
+                () -> entityManager.createQuery(MemberRepository.MEMBER_COUNT_QUERY, Long.class)
+                        .getSingleResult()));
+    }
+
+    @Override
+    public Page<Member> findByAge(int age, Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.ESTIMATED) {
+            throw new IllegalArgumentException("조건이 있는 조회에는 추정 count를 사용할 수 없습니다.");
+        }
+        String jpql = "select m from Member m where m.age = :age";
+        List<Member> content = entityManager.createQuery(QueryUtils.applySorting(jpql, pageable.getSort(), "m"), Member.class)
+                .setParameter("age", age)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(countMode, List.of("count(Member.age)", age),
+                () -> entityManager.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult()));
+    }
+
+    /**
+     * 결과를 한 번에 List로 올리지 않고 JDBC fetch size 단위로 커서를 읽어 온다.
+     * 읽기 전용 힌트로 스냅샷을 만들지 않고, 2차 캐시를 채우지 않으며, 읽은 회원은 바로 detach 해서 영속성 컨텍스트가 커지지 않게 한다.
+     */
+    @Override
+    public Stream<Member> streamAll(int fetchSize) {
+        return entityManager.createQuery("select m from Member m left join fetch m.team", Member.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream()
+                .peek(this::detachWithTeam);
+    }
+
+    // 함께 조회한 팀도 분리해야 스트림을 끝까지 읽는 동안 영속성 컨텍스트에 팀이 쌓이지 않는다.
+    private void detachWithTeam(Member member) {
+        entityManager.detach(member);
+        if (member.getTeam() != null) {
+            entityManager.detach(member.getTeam());
+        }
+    }
+
+    // 하이버네이트의 H2Dialect는 SKIP LOCKED 락 옵션을 SQL로 만들지 않기 때문에 네이티브 쿼리를 사용한다.
+    @Override
+    public List<Member> claimByAge(int age, int limit) {
+        Dialect dialect = entityManager.unwrap(SessionImplementor.class).getJdbcServices().getDialect();
+        @SuppressWarnings("unchecked")
+        List<Member> members = entityManager.createNativeQuery(claimByAgeSql(dialect), Member.class)
+                .setParameter("age", age)
+                .setParameter("limit", limit)
+                .getResultList();
+        return members;
+    }
+
+    // H2는 보조 인덱스(ix_member_age_id)로 읽으면서 SKIP LOCKED를 적용하면 잠긴 row를 만난 뒤의 row를 돌려주지 않으므로
+    // H2에서만 인덱스 힌트로 기본 키 순서로 읽는다. 다른 DB는 ix_member_age_id로 읽는다.
+    static String claimByAgeSql(Dialect dialect) {
+        return (dialect instanceof H2Dialect) ? CLAIM_BY_AGE_H2 : CLAIM_BY_AGE;
+    }
+
+    // H2는 wait 뒤에 바인딩 파라미터를 받지 않으므로 검증한 timeout을 SQL에 직접 넣는다.
+    @Override
+    public List<Member> claimByAge(int age, int limit, Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout: " + timeout + " 은 음수일 수 없습니다.");
+        }
+        BigDecimal seconds = BigDecimal.valueOf(timeout.toMillis()).movePointLeft(3);
+        @SuppressWarnings("unchecked")
+        List<Member> members = entityManager.createNativeQuery("select * from member where age = :age order by member_id limit :limit" +
+                        " for update wait " + seconds.toPlainString(), Member.class)
+                .setParameter("age", age)
+                .setParameter("limit", limit)
+                .getResultList();
+        return members;
+    }
+
+    @Transactional
+    @Override
+    public void deleteAllInBatch() {
+        entityManager.createQuery("delete from Member m")
+                .executeUpdate();
+        afterBulkChange();
+    }
+
+    @Transactional
+    @Override
+    public void deleteAllInBatch(Iterable<Member> members) {
+        List<Long> ids = new ArrayList<>();
+        members.forEach(member -> ids.add(member.getId()));
+        deleteAllByIdInBatch(ids);
+    }
+
+    @Transactional
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (idList.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("delete from Member m where m.id in :ids")
+                .setParameter("ids", idList)
+                .executeUpdate();
+        afterBulkChange();
+    }
+
+    @Transactional
+    @Override
+    public int bulkAgePlus(int age) {
+        int rows = entityManager.createQuery(BULK_AGE_PLUS)
+                .setParameter("age", age)
+                .executeUpdate();
+        entityManager.clear();
+        afterBulkChange();
+        return rows;
+    }
+
+    @Override
+    public BulkUpdateProgress bulkAgePlus(int age, BulkUpdateOptions options) {
+        try {
+            return chunkedBulkUpdateExecutor.execute(Member.class, BULK_AGE_PLUS_SET, BULK_AGE_PLUS_CONDITION, Map.of("age", age), options);
+        } finally {
+            memberChangeListener.onBulkChange();
+        }
+    }
+
+    private void afterBulkChange() {
+        TeamCacheEvictionListener.evictAll(entityManager.unwrap(EventSource.class));
+        memberChangeListener.onBulkChange();
+    }
+
+    private long count(CountMode countMode, List<Object> cacheKey, LongSupplier counter) {
+        if (countMode == CountMode.CACHED) {
+            return memberCountCache.get(cacheKey, counter);
+        }
+        return counter.getAsLong();
+    }
+
+    // 통계가 없으면 정확한 count로 대신한다.
+    private long estimateCount() {
+        Object estimate = entityManager.createNativeQuery("select row_count_estimate from information_schema.tables" +
+                        " where table_schema = current_schema and table_name = 'MEMBER'")
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+        if (estimate == null) {
+            return entityManager.createQuery("select count(m) from Member m", Long.class)
+                    .getSingleResult();
+        }
+        return ((Number) estimate).longValue();
+    }
+
+    // 다음 페이지 존재 여부를 count 쿼리 없이 알기 위해 size + 1 개를 조회한다.
+    private CursorPage<Member> toCursorPage(TypedQuery<Member> query, int size) {
+        List<Member> members = query.setMaxResults(size + 1)
+                .getResultList();
+        if (members.size() <= size) {
+            return new CursorPage<>(members, null);
+        }
+        List<Member> content = members.subList(0, size);
+        return new CursorPage<>(content, MemberCursor.of(content.get(size - 1)).encode());
+    }
 }
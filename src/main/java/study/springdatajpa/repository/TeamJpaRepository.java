@@ -1,6 +1,8 @@
 package study.springdatajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 import study.springdatajpa.entity.Team;
 
@@ -12,12 +14,20 @@ import java.util.Optional;
 @Repository
 public class TeamJpaRepository {
     private final EntityManager entityManager;
+    private final BatchPersister batchPersister;
 
     public Team save(Team team) {
         entityManager.persist(team);
         return team;
     }
 
+    /**
+     * {@link BatchPersister}로 저장한다. 저장하는 모든 팀에는 같은 생성 시각과 작성자가 기록된다. 저장한 개수를 반환한다.
+     */
+    public long saveAllBatched(Iterable<Team> teams) {
+        return batchPersister.persistAll(teams);
+    }
+
     public void delete(Team team) {
         entityManager.remove(team);
     }
@@ -31,6 +41,22 @@ public class TeamJpaRepository {
                 .getResultList();
     }
 
+    public List<Team> findAll(FetchStrategy fetchStrategy) {
+        switch (fetchStrategy) {
+            case BATCH: {
+                List<Team> teams = findAll();
+                teams.forEach(team -> Hibernate.initialize(team.getMembers()));
+                return teams;
+            }
+            case JOIN:
+                return entityManager.createQuery("select distinct t from Team t left join fetch t.members", Team.class)
+                        .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)
+                        .getResultList();
+            default:
+                return findAll();
+        }
+    }
+
     public long count() {
         return entityManager.createQuery("select count(t) from Team t", Long.class)
                 .getSingleResult();
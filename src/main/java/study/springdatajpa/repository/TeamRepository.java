@@ -1,7 +1,14 @@
 package study.springdatajpa.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import study.springdatajpa.entity.Team;
 
+import java.util.List;
+
 public interface TeamRepository extends JpaRepository<Team, Long> {
+    @EntityGraph(attributePaths = {"members"})
+    @Query("select distinct t from Team t")
+    List<Team> findAllWithMembers();
 }
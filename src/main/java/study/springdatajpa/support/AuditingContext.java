@@ -0,0 +1,83 @@
+package study.springdatajpa.support;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Supplier;
+
+/**
+ * 감사(auditing) 컬럼에 사용할 시각과 배치 범위를 관리한다.
+ * 시각은 GRANULARITY_MILLIS 동안 같은 LocalDateTime을 재사용하고,
+ * 배치 범위 안에서는 모든 엔티티가 하나의 시각과 하나의 작성자를 공유한다.
+ */
+public final class AuditingContext {
+    static final long GRANULARITY_MILLIS = 10;
+    private static final ZoneId zone = ZoneId.systemDefault();
+    private static final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+
+    private static volatile Snapshot snapshot = new Snapshot(0, LocalDateTime.ofInstant(Instant.EPOCH, zone));
+
+    private AuditingContext() {
+    }
+
+    public static LocalDateTime now() {
+        Batch batch = currentBatch.get();
+        if (batch != null) {
+            return batch.now;
+        }
+        return now(System.currentTimeMillis());
+    }
+
+    static LocalDateTime now(long millis) {
+        Snapshot current = snapshot;
+        if (millis >= current.millis && millis - current.millis < GRANULARITY_MILLIS) {
+            return current.time;
+        }
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+        snapshot = new Snapshot(millis, time);
+        return time;
+    }
+
+    public static void inBatch(Runnable action) {
+        inBatch(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // 이미 배치 범위 안이라면 바깥 배치의 시각과 작성자를 그대로 사용한다.
+    public static <T> T inBatch(Supplier<T> action) {
+        if (currentBatch.get() != null) {
+            return action.get();
+        }
+        currentBatch.set(new Batch(now()));
+        try {
+            return action.get();
+        } finally {
+            currentBatch.remove();
+        }
+    }
+
+    static Batch currentBatch() {
+        return currentBatch.get();
+    }
+
+    static class Batch {
+        private final LocalDateTime now;
+        String auditor;
+
+        private Batch(LocalDateTime now) {
+            this.now = now;
+        }
+    }
+
+    private static class Snapshot {
+        private final long millis;
+        private final LocalDateTime time;
+
+        private Snapshot(long millis, LocalDateTime time) {
+            this.millis = millis;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package study.springdatajpa.support;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 작성자를 엔티티마다 구하지 않고 HTTP 요청 또는 배치 범위마다 한 번만 구해서 재사용한다.
+ * 요청과 배치 밖에서는 매번 resolver를 호출한다.
+ */
+public class CachingAuditorAware implements AuditorAware<String> {
+    private static final String AUDITOR_ATTRIBUTE = CachingAuditorAware.class.getName() + ".auditor";
+
+    private final Supplier<String> resolver;
+
+    public CachingAuditorAware(Supplier<String> resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        AuditingContext.Batch batch = AuditingContext.currentBatch();
+        if (batch != null) {
+            if (batch.auditor == null) {
+                batch.auditor = resolver.get();
+            }
+            return Optional.ofNullable(batch.auditor);
+        }
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return Optional.ofNullable(resolver.get());
+        }
+        String auditor = (String) requestAttributes.getAttribute(AUDITOR_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (auditor == null) {
+            auditor = resolver.get();
+            requestAttributes.setAttribute(AUDITOR_ATTRIBUTE, auditor, RequestAttributes.SCOPE_REQUEST);
+        }
+        return Optional.ofNullable(auditor);
+    }
+}
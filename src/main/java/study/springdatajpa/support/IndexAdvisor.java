@@ -0,0 +1,275 @@
+package study.springdatajpa.support;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 애플리케이션이 뜨면 리포지토리 쿼리 메서드(메서드 이름 쿼리, @Query, Named Query)의 where 조건 컬럼을 모아서
+ * DB 인덱스 메타데이터와 비교하고, 조건을 인덱스의 앞쪽 컬럼으로 사용할 수 있는 인덱스가 하나도 없으면 경고를 남긴다.
+ * index-advisor.create-missing=true이면 빠진 인덱스를 바로 생성한다.
+ * 시작할 때마다 메타데이터를 읽으므로 dev 프로필에서만 켠다.
+ */
+@Slf4j
+@ConditionalOnProperty(name = "index-advisor.enabled", havingValue = "true")
+@Component
+public class IndexAdvisor {
+    private static final Pattern FROM_PATTERN = Pattern.compile("\\bfrom\\s+([\\w.]+)\\s+(?:as\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHERE_PATTERN = Pattern.compile("\\bwhere\\b(.*?)(?:\\border\\s+by\\b|\\bgroup\\s+by\\b|$)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Set<Part.Type> EQUALITY_TYPES = EnumSet.of(Part.Type.SIMPLE_PROPERTY, Part.Type.IN, Part.Type.IS_NULL, Part.Type.TRUE, Part.Type.FALSE);
+
+    private final ApplicationContext applicationContext;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+    private final boolean createMissing;
+
+    public IndexAdvisor(ApplicationContext applicationContext, EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                        @Value("${index-advisor.create-missing:false}") boolean createMissing) {
+        this.applicationContext = applicationContext;
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.createMissing = createMissing;
+    }
+
+    // 진단용 기능이므로 메타데이터를 읽지 못해도 애플리케이션 시작을 막지 않는다.
+    @EventListener(ApplicationReadyEvent.class)
+    public void advise() {
+        List<IndexAdvice> missingIndexes;
+        try {
+            missingIndexes = findMissingIndexes();
+        } catch (RuntimeException e) {
+            log.warn("index advisor skipped: {}", e.getMessage(), e);
+            return;
+        }
+        for (IndexAdvice advice : missingIndexes) {
+            log.warn("missing index on {}({}) used by {}", advice.getTable(), String.join(", ", advice.getColumns()), advice.getMethods());
+            if (createMissing) {
+                new JdbcTemplate(dataSource).execute(advice.toDdl());
+                log.info("created index: {}", advice.toDdl());
+            }
+        }
+    }
+
+    /**
+     * 조건을 인덱스의 앞쪽 컬럼으로 사용할 수 있는 인덱스가 없는 쿼리를 테이블과 컬럼 조합별로 묶어서 반환한다.
+     * 제안하는 컬럼 순서는 동등 조건 컬럼이 앞, 범위 조건 컬럼이 뒤다.
+     */
+    public List<IndexAdvice> findMissingIndexes() {
+        Map<String, List<List<String>>> indexesByTable = new HashMap<>();
+        Map<String, IndexAdvice> advices = new LinkedHashMap<>();
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            Optional<RepositoryInformation> information = repositories.getRepositoryInformationFor(domainType);
+            if (information.isEmpty()) {
+                continue;
+            }
+            AbstractEntityPersister persister = (AbstractEntityPersister) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getMetamodel().entityPersister(domainType);
+            String table = persister.getTableName();
+            for (Method method : information.get().getQueryMethods()) {
+                for (Predicates properties : predicateProperties(domainType, method)) {
+                    List<String> equalities = toColumns(persister, properties.getEqualities());
+                    List<String> ranges = toColumns(persister, properties.getRanges());
+                    List<String> columns = merge(equalities, ranges);
+                    if (columns.isEmpty()) {
+                        continue;
+                    }
+                    List<List<String>> indexes = indexesByTable.computeIfAbsent(table, this::readIndexes);
+                    boolean covered = indexes.stream().anyMatch(index -> covers(index, equalities, ranges));
+                    if (!covered) {
+                        String key = table + columns;
+                        advices.computeIfAbsent(key, k -> new IndexAdvice(table, columns))
+                                .getMethods().add(domainType.getSimpleName() + "." + method.getName());
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(advices.values());
+    }
+
+    /**
+     * 인덱스의 앞쪽 컬럼 중 동등 조건 컬럼이 이어지는 부분이 모든 동등 조건 컬럼을 포함하거나 인덱스 전체이면 사용할 수 있다고 본다.
+     * 동등 조건이 없으면 범위 조건 컬럼으로 시작하는 인덱스를 사용할 수 있다.
+     */
+    static boolean covers(List<String> index, List<String> equalities, List<String> ranges) {
+        if (equalities.isEmpty()) {
+            return ranges.contains(index.get(0));
+        }
+        int prefix = 0;
+        while (prefix < index.size() && equalities.contains(index.get(prefix))) {
+            prefix++;
+        }
+        return prefix > 0 && (prefix == new HashSet<>(equalities).size() || prefix == index.size());
+    }
+
+    // OR로 묶인 조건은 따로 인덱스를 타므로 각각 하나의 조건 묶음으로 본다.
+    private List<Predicates> predicateProperties(Class<?> domainType, Method method) {
+        Query query = method.getAnnotation(Query.class);
+        if (query != null && query.nativeQuery()) {
+            return List.of();
+        }
+        if (query != null && StringUtils.hasText(query.value())) {
+            return List.of(parseJpql(query.value()));
+        }
+        String namedQueryName = query != null && StringUtils.hasText(query.name())
+                ? query.name() : domainType.getSimpleName() + "." + method.getName();
+        Optional<String> namedQuery = findNamedQuery(domainType, namedQueryName);
+        if (namedQuery.isPresent()) {
+            return List.of(parseJpql(namedQuery.get()));
+        }
+        try {
+            List<Predicates> result = new ArrayList<>();
+            for (PartTree.OrPart orPart : new PartTree(method.getName(), domainType)) {
+                List<String> equalities = new ArrayList<>();
+                List<String> ranges = new ArrayList<>();
+                for (Part part : orPart) {
+                    if (part.getProperty().hasNext()) {
+                        continue;
+                    }
+                    (EQUALITY_TYPES.contains(part.getType()) ? equalities : ranges).add(part.getProperty().getSegment());
+                }
+                result.add(new Predicates(equalities, ranges));
+            }
+            return result;
+        } catch (RuntimeException e) {
+            return List.of();
+        }
+    }
+
+    // 루트 엔티티 별칭의 바로 아래 프로퍼티만 본다. m.team.name처럼 조인한 테이블의 컬럼은 제외한다.
+    static Predicates parseJpql(String jpql) {
+        Matcher from = FROM_PATTERN.matcher(jpql);
+        Matcher where = WHERE_PATTERN.matcher(jpql);
+        if (!from.find() || !where.find()) {
+            return new Predicates(List.of(), List.of());
+        }
+        Pattern predicate = Pattern.compile("\\b" + Pattern.quote(from.group(2))
+                + "\\.(\\w+)\\b(?!\\.)\\s*(=|<>|!=|<=|>=|<|>|(?i:not\\s+)?(?i:in|like|between|is)\\b)");
+        Matcher matcher = predicate.matcher(where.group(1));
+        List<String> equalities = new ArrayList<>();
+        List<String> ranges = new ArrayList<>();
+        while (matcher.find()) {
+            String operator = matcher.group(2).toLowerCase();
+            boolean equality = operator.equals("=") || operator.equals("in") || operator.equals("is");
+            (equality ? equalities : ranges).add(matcher.group(1));
+        }
+        return new Predicates(equalities, ranges);
+    }
+
+    private static List<String> merge(List<String> equalities, List<String> ranges) {
+        LinkedHashSet<String> properties = new LinkedHashSet<>(equalities);
+        properties.addAll(ranges);
+        return new ArrayList<>(properties);
+    }
+
+    private Optional<String> findNamedQuery(Class<?> domainType, String name) {
+        List<NamedQuery> namedQueries = new ArrayList<>();
+        NamedQuery namedQuery = domainType.getAnnotation(NamedQuery.class);
+        if (namedQuery != null) {
+            namedQueries.add(namedQuery);
+        }
+        NamedQueries container = domainType.getAnnotation(NamedQueries.class);
+        if (container != null) {
+            namedQueries.addAll(Arrays.asList(container.value()));
+        }
+        return namedQueries.stream()
+                .filter(q -> q.name().equals(name))
+                .map(NamedQuery::query)
+                .findFirst();
+    }
+
+    private List<String> toColumns(AbstractEntityPersister persister, List<String> properties) {
+        List<String> columns = new ArrayList<>();
+        for (String property : properties) {
+            try {
+                for (String column : persister.getPropertyColumnNames(property)) {
+                    columns.add(column.toLowerCase());
+                }
+            } catch (HibernateException e) {
+                log.debug("cannot resolve column of {}.{}", persister.getEntityName(), property);
+            }
+        }
+        return columns;
+    }
+
+    // 인덱스별 컬럼을 순서대로 읽는다. 기본 키 인덱스도 포함된다.
+    private List<List<String>> readIndexes(String table) {
+        Map<String, SortedMap<Short, String>> indexes = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+            try (ResultSet resultSet = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), tableName, false, true)) {
+                while (resultSet.next()) {
+                    String indexName = resultSet.getString("INDEX_NAME");
+                    String column = resultSet.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) {
+                        continue;
+                    }
+                    indexes.computeIfAbsent(indexName, k -> new TreeMap<>())
+                            .put(resultSet.getShort("ORDINAL_POSITION"), column.toLowerCase());
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("cannot read index metadata of " + table, e);
+        }
+        List<List<String>> result = new ArrayList<>();
+        indexes.values().forEach(columns -> result.add(new ArrayList<>(columns.values())));
+        return result;
+    }
+
+    @Getter
+    static class Predicates {
+        private final List<String> equalities;
+        private final List<String> ranges;
+
+        Predicates(List<String> equalities, List<String> ranges) {
+            this.equalities = equalities;
+            this.ranges = ranges;
+        }
+    }
+
+    @Getter
+    public static class IndexAdvice {
+        private final String table;
+        private final List<String> columns;
+        private final List<String> methods = new ArrayList<>();
+
+        IndexAdvice(String table, List<String> columns) {
+            this.table = table;
+            this.columns = columns;
+        }
+
+        public String toDdl() {
+            return "create index ix_" + table + "_" + String.join("_", columns) + " on " + table + " (" + String.join(", ", columns) + ")";
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package study.springdatajpa.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.springdatajpa.entity.Member;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 회원이 저장, 수정, 삭제되면 회원으로 만든 캐시를 비우는 엔티티 리스너.
+ * 하이버네이트가 스프링 빈으로 생성하므로 의존성을 주입받을 수 있다.
+ */
+@RequiredArgsConstructor
+@Component
+public class MemberChangeListener {
+    private final MemberSummaryCache memberSummaryCache;
+    private final MemberCountCache memberCountCache;
+
+    @PostPersist
+    public void onPersist(Member member) {
+        invalidate(null);
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Member member) {
+        memberSummaryCache.evict(member.getId());
+        invalidate(member.getId());
+    }
+
+    /**
+     * 벌크 연산은 엔티티 콜백을 거치지 않으므로 벌크 연산을 실행한 쪽에서 호출한다.
+     * 어떤 회원이 바뀌었는지 알 수 없으므로 요약 캐시도 전부 비운다.
+     */
+    public void onBulkChange() {
+        memberSummaryCache.invalidateAll();
+        invalidate(null).bulk = true;
+    }
+
+    /**
+     * 커밋 전에 다른 요청이 이전 값을 다시 캐시에 넣을 수 있으므로 트랜잭션이 끝난 후에 한 번 더 비운다.
+     * 대량 저장에서도 트랜잭션마다 동기화는 한 번만 등록한다.
+     */
+    private Changes invalidate(Long id) {
+        // 같은 트랜잭션에서 변경 후에 다시 센 값도 지워야 하므로 변경될 때마다 비운다.
+        memberCountCache.invalidateAll();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Changes();
+        }
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new Changes();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new InvalidationSynchronization(changes));
+        }
+        if (id != null) {
+            changes.ids.add(id);
+        }
+        return changes;
+    }
+
+    // 트랜잭션에서 바뀐 회원 id와 벌크 연산 실행 여부
+    private static class Changes {
+        private final Set<Long> ids = new HashSet<>();
+        private boolean bulk;
+    }
+
+    private class InvalidationSynchronization implements TransactionSynchronization {
+        private final Changes changes;
+
+        private InvalidationSynchronization(Changes changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(MemberChangeListener.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(MemberChangeListener.this, changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MemberChangeListener.this);
+            if (changes.bulk) {
+                memberSummaryCache.invalidateAll();
+            } else {
+                changes.ids.forEach(memberSummaryCache::evict);
+            }
+            memberCountCache.invalidateAll();
+        }
+    }
+}
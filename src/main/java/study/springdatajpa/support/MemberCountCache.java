@@ -0,0 +1,38 @@
+package study.springdatajpa.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 회원 count 쿼리 결과를 쿼리와 파라미터별로 TTL 동안 보관하는 캐시.
+ * 회원이 저장, 수정, 삭제되거나 벌크 연산이 실행되면 {@link MemberChangeListener}가 전부 비운다.
+ */
+@Component
+public class MemberCountCache {
+    private final Cache<List<Object>, Long> cache;
+
+    public MemberCountCache(MeterRegistry meterRegistry, @Value("${member.count-cache.ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(1000)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "member.count");
+    }
+
+    public long get(List<Object> key, LongSupplier counter) {
+        return cache.get(key, k -> counter.getAsLong());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
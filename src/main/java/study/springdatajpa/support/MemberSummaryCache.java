@@ -0,0 +1,41 @@
+package study.springdatajpa.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.springdatajpa.dto.MemberSummary;
+
+import java.util.function.Function;
+
+/**
+ * 회원 id로 조회한 MemberSummary를 보관하는 크기 제한 캐시.
+ * 회원이 수정되거나 삭제되면 {@link MemberChangeListener}가 해당 id를 비우고, 벌크 연산이 실행되면 전부 비운다.
+ */
+@Component
+public class MemberSummaryCache {
+    private final Cache<Long, MemberSummary> cache;
+
+    public MemberSummaryCache(MeterRegistry meterRegistry, @Value("${member.summary-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "member.summary");
+    }
+
+    // loader가 null을 반환하면 캐시에 저장하지 않는다.
+    public MemberSummary get(Long id, Function<Long, MemberSummary> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,20 @@
+package study.springdatajpa.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 낙관적 락 충돌이 발생하면 메서드를 다시 실행한다.
+ * 재시도마다 새로운 트랜잭션에서 실행되도록 @Transactional 메서드에 함께 붙여서 사용한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticRetry {
+    int maxAttempts() default 3;
+
+    long backoffMillis() default 20;
+
+    long maxBackoffMillis() default 500;
+}
@@ -0,0 +1,24 @@
+package study.springdatajpa.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// 트랜잭션 어드바이스(LOWEST_PRECEDENCE)보다 바깥에서 실행되어야 재시도마다 새로운 트랜잭션이 시작된다.
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@Aspect
+@RequiredArgsConstructor
+@Component
+public class OptimisticRetryAspect {
+    private final OptimisticRetryTemplate optimisticRetryTemplate;
+
+    @Around("@annotation(optimisticRetry)")
+    public Object retry(ProceedingJoinPoint joinPoint, OptimisticRetry optimisticRetry) throws Throwable {
+        return optimisticRetryTemplate.retry(optimisticRetry.maxAttempts(), optimisticRetry.backoffMillis(),
+                optimisticRetry.maxBackoffMillis(), joinPoint::proceed);
+    }
+}
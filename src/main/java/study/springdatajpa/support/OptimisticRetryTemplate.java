@@ -0,0 +1,97 @@
+package study.springdatajpa.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 낙관적 락 충돌이 발생하면 트랜잭션 단위 작업을 지수 백오프와 지터를 두고 다시 실행한다.
+ * 충돌이 드문 쓰기 작업이 비관적 락을 기다리며 직렬화되지 않도록 하기 위해 사용한다.
+ * 바깥 트랜잭션에 참여하면 재시도가 같은 영속성 컨텍스트와 롤백 전용 트랜잭션을 다시 쓰게 되므로 트랜잭션 밖에서만 호출할 수 있다.
+ */
+@Component
+public class OptimisticRetryTemplate {
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BACKOFF_MILLIS = 20;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 500;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Counter executionCounter;
+    private final Counter conflictCounter;
+    private final Counter retryCounter;
+    private final Counter exhaustedCounter;
+
+    public OptimisticRetryTemplate(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executionCounter = meterRegistry.counter("optimistic.lock.executions");
+        this.conflictCounter = meterRegistry.counter("optimistic.lock.conflicts");
+        this.retryCounter = meterRegistry.counter("optimistic.lock.retries");
+        this.exhaustedCounter = meterRegistry.counter("optimistic.lock.exhausted");
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        try {
+            return retry(DEFAULT_MAX_ATTEMPTS, DEFAULT_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS, () -> transactionTemplate.execute(action));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    <T> T retry(int maxAttempts, long backoffMillis, long maxBackoffMillis, RetryableAction<T> action) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("재시도마다 새로운 트랜잭션을 사용하므로 트랜잭션 밖에서 호출해야 합니다.");
+        }
+        executionCounter.increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.run();
+            } catch (Throwable e) {
+                if (!isOptimisticLockConflict(e)) {
+                    throw e;
+                }
+                conflictCounter.increment();
+                if (attempt >= maxAttempts) {
+                    exhaustedCounter.increment();
+                    throw e;
+                }
+                retryCounter.increment();
+                sleep(attempt, backoffMillis, maxBackoffMillis, e);
+            }
+        }
+    }
+
+    // full jitter: 0 ~ min(maxBackoff, backoff * 2^(attempt - 1)) 사이에서 무작위로 기다린다.
+    private void sleep(int attempt, long backoffMillis, long maxBackoffMillis, Throwable conflict) throws Throwable {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private boolean isOptimisticLockConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    interface RetryableAction<T> {
+        T run() throws Throwable;
+    }
+}
@@ -0,0 +1,181 @@
+package study.springdatajpa.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 컨텍스트가 올라오면 리포지토리 쿼리 메서드를 백그라운드에서 자리표시 인자로 한 번씩 실행해서 하이버네이트 쿼리 플랜 캐시를 채운다.
+ * 메서드 이름 쿼리는 Spring Data가 CriteriaQuery만 만들어 두고, 하이버네이트가 처음 실행할 때 JPQL로 바꿔서 컴파일하므로 실행해야 캐시에 들어간다.
+ * 페이지 조회는 두 번째 페이지를 요청해서 count 쿼리도 함께 실행한다. 요청마다 달라지는 정렬 조건을 붙인 쿼리는 미리 만들 수 없다.
+ * 모든 쿼리는 롤백하는 트랜잭션에서 실행하고, 끝나기 전까지는 readiness 그룹에 OUT_OF_SERVICE로 보고해서 트래픽을 받지 않는다.
+ */
+@Slf4j
+@Component
+public class QueryPlanWarmup implements HealthIndicator {
+    private static final long ASYNC_TIMEOUT_SECONDS = 10;
+
+    private final ApplicationContext applicationContext;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile int executedQueries;
+    private volatile int failedQueries;
+    private volatile long elapsedMillis;
+
+    public QueryPlanWarmup(ApplicationContext applicationContext, PlatformTransactionManager transactionManager,
+                           @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.applicationContext = applicationContext;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+    }
+
+    // ApplicationReadyEvent보다 먼저 발생하므로 HTTP 포트가 열린 뒤 준비 완료를 알리기 전에 시작한다.
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        executor.execute(this::warmup);
+    }
+
+    private void warmup() {
+        long start = System.nanoTime();
+        try {
+            Repositories repositories = new Repositories(applicationContext);
+            for (Class<?> domainType : repositories) {
+                Object repository = repositories.getRepositoryFor(domainType).orElse(null);
+                repositories.getRepositoryInformationFor(domainType).ifPresent(information -> {
+                    for (Method method : information.getQueryMethods()) {
+                        Object[] arguments = placeholderArguments(method);
+                        if (repository != null && arguments != null && isReadQuery(method)) {
+                            execute(repository, method, arguments);
+                        }
+                    }
+                });
+            }
+        } finally {
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            completed.countDown();
+            log.info("query plan warm-up executed {} queries ({} failed) in {} ms", executedQueries, failedQueries, elapsedMillis);
+        }
+    }
+
+    // 네이티브 쿼리는 플랜 캐시를 거치지 않고, 변경 쿼리는 실행하지 않는다.
+    private boolean isReadQuery(Method method) {
+        Query query = method.getAnnotation(Query.class);
+        if (query != null && query.nativeQuery()) {
+            return false;
+        }
+        String name = method.getName();
+        return method.getAnnotation(Modifying.class) == null && !name.startsWith("delete") && !name.startsWith("remove");
+    }
+
+    private void execute(Object repository, Method method, Object[] arguments) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                try {
+                    close(method.invoke(repository, arguments));
+                } catch (InvocationTargetException e) {
+                    throw new IllegalStateException(e.getCause());
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            executedQueries++;
+        } catch (RuntimeException e) {
+            failedQueries++;
+            log.warn("query plan warm-up failed: {}", method, e);
+        }
+    }
+
+    // 비동기 메서드는 끝날 때까지 기다리고, 스트림은 트랜잭션 안에서 닫는다.
+    private void close(Object result) {
+        if (result instanceof Future) {
+            try {
+                ((Future<?>) result).get(ASYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        } else if (result instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) result).close();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // 자리표시 값을 만들 수 없는 파라미터가 있으면 null을 반환하고 그 메서드는 건너뛴다.
+    private static Object[] placeholderArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            arguments[i] = placeholder(types[i]);
+            if (arguments[i] == null) {
+                return null;
+            }
+        }
+        return arguments;
+    }
+
+    private static Object placeholder(Class<?> type) {
+        if (type == String.class) {
+            return "";
+        }
+        if (type == int.class || type == Integer.class) {
+            return 0;
+        }
+        if (type == long.class || type == Long.class) {
+            return 0L;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return false;
+        }
+        // offset이 0보다 크고 결과가 없어야 PageableExecutionUtils가 count 쿼리도 실행한다.
+        if (type == Pageable.class) {
+            return PageRequest.of(1, 1);
+        }
+        if (type == Sort.class) {
+            return Sort.unsorted();
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        return null;
+    }
+
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return completed.await(timeout, unit);
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = completed.getCount() == 0 ? Health.up() : Health.outOfService();
+        return builder.withDetail("executedQueries", executedQueries)
+                .withDetail("failedQueries", failedQueries)
+                .withDetail("elapsedMillis", elapsedMillis)
+                .build();
+    }
+}
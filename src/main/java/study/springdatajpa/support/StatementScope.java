@@ -0,0 +1,92 @@
+package study.springdatajpa.support;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 현재 스레드에서 범위를 연 뒤 실행된 SQL 문을 리터럴과 in 절 파라미터 개수를 지운 모양(shape)별로 센다.
+ * 같은 모양이 여러 번 실행되면 N+1을 의심할 수 있다. 범위는 중첩할 수 있고, 안쪽 범위의 SQL 문은 바깥 범위에도 더해진다.
+ * 다른 스레드(@Async 조회, 병렬 in 절 조회)에서 실행된 SQL 문은 세지 않는다.
+ * <pre>
+ * try (StatementScope scope = StatementScope.open()) {
+ *     memberRepository.findMembersWithTeam();
+ *     assertThat(scope.getStatementCount()).isEqualTo(1);
+ * }
+ * </pre>
+ */
+public final class StatementScope implements AutoCloseable {
+    private static final ThreadLocal<StatementScope> current = new ThreadLocal<>();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final StatementScope parent;
+    private final Map<String, Integer> countsByShape = new LinkedHashMap<>();
+    private int statementCount;
+    private boolean closed;
+
+    private StatementScope(StatementScope parent) {
+        this.parent = parent;
+    }
+
+    public static StatementScope open() {
+        StatementScope scope = new StatementScope(current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    // 범위가 열려 있지 않으면 SQL을 정규화하지 않고 바로 반환한다.
+    public static void record(String sql) {
+        StatementScope scope = current.get();
+        if (scope == null || sql == null) {
+            return;
+        }
+        String shape = normalize(sql);
+        for (; scope != null; scope = scope.parent) {
+            scope.statementCount++;
+            scope.countsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    static String normalize(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ").toLowerCase();
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("in (?)");
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public Map<String, Integer> getCountsByShape() {
+        return Collections.unmodifiableMap(countsByShape);
+    }
+
+    // threshold 번 이상 실행된 모양만 반환한다.
+    public Map<String, Integer> getRepeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        countsByShape.forEach((shape, count) -> {
+            if (count >= threshold) {
+                repeated.put(shape, count);
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (parent == null) {
+            current.remove();
+        } else {
+            current.set(parent);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package study.springdatajpa.support;
+
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.entity.Team;
+
+/**
+ * 팀의 회원 수는 조회할 때 계산하므로 회원이 팀에 들어오거나 나가면 2차 캐시에 남은 팀을 비운다.
+ * 이전 팀은 JPA 콜백으로 알 수 없으므로 변경 전 상태를 넘겨주는 하이버네이트 이벤트 리스너를 사용한다.
+ * 커밋 전에 다른 트랜잭션이 이전 회원 수를 다시 캐시에 넣을 수 있으므로 트랜잭션이 끝난 후에 한 번 더 비운다.
+ */
+public class TeamCacheEvictionListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    private static final String TEAM_PROPERTY = "team";
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            evict(event.getSession(), teamOf(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member) || event.getOldState() == null) {
+            return;
+        }
+        Team oldTeam = teamOf(event.getPersister(), event.getOldState());
+        Team newTeam = teamOf(event.getPersister(), event.getState());
+        if (oldTeam != newTeam) {
+            evict(event.getSession(), oldTeam);
+            evict(event.getSession(), newTeam);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            evict(event.getSession(), teamOf(event.getPersister(), event.getDeletedState()));
+        }
+    }
+
+    /**
+     * 벌크 연산처럼 이벤트가 발생하지 않는 회원 변경 후에 호출해서 팀 캐시를 모두 비운다.
+     */
+    public static void evictAll(EventSource session) {
+        session.getFactory().getCache().evictEntityData(Team.class);
+        session.getActionQueue().registerProcess((success, s) -> s.getFactory().getCache().evictEntityData(Team.class));
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private Team teamOf(EntityPersister persister, Object[] state) {
+        return (Team) state[persister.getEntityMetamodel().getPropertyIndex(TEAM_PROPERTY)];
+    }
+
+    private void evict(EventSource session, Team team) {
+        if (team == null) {
+            return;
+        }
+        // 지연 로딩 프록시는 초기화하지 않고 식별자만 꺼낸다.
+        Long teamId = team instanceof HibernateProxy
+                ? (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier()
+                : team.getId();
+        if (teamId == null) {
+            return;
+        }
+        session.getFactory().getCache().evictEntityData(Team.class, teamId);
+        session.getActionQueue().registerProcess((success, s) -> s.getFactory().getCache().evictEntityData(Team.class, teamId));
+    }
+}
@@ -0,0 +1,43 @@
+package study.springdatajpa.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncSqlLoggerTest {
+    @AfterEach
+    void tearDown() {
+        AsyncSqlLogger.configure(100, 1.0);
+    }
+
+    @DisplayName("빠른 쿼리는 sample-rate 비율만큼만 기록한다.")
+    @Test
+    void sampleRateTest() {
+        // given
+        AsyncSqlLogger.configure(100, 0.25);
+
+        // when
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (AsyncSqlLogger.isSampled(10, i / 100.0)) {
+                sampled++;
+            }
+        }
+
+        // then
+        assertThat(sampled).isEqualTo(25);
+    }
+
+    @DisplayName("느린 쿼리는 sample-rate와 상관없이 항상 기록한다.")
+    @Test
+    void slowQueryAlwaysSampledTest() {
+        // given
+        AsyncSqlLogger.configure(100, 0.0);
+
+        // when & then
+        assertThat(AsyncSqlLogger.isSampled(100, 0.99)).isTrue();
+        assertThat(AsyncSqlLogger.isSampled(99, 0.0)).isFalse();
+    }
+}
@@ -0,0 +1,66 @@
+package study.springdatajpa.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class ConnectionBulkheadDataSourceTest {
+    @Autowired
+    DataSource dataSource;
+
+    @DisplayName("허가를 모두 사용하면 커넥션을 빌리지 못하고, 커넥션을 닫으면 허가가 반납된다.")
+    @Test
+    void bulkheadTest() throws SQLException {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConnectionBulkheadDataSource bulkhead = new ConnectionBulkheadDataSource(dataSource, 1, Duration.ofMillis(50), meterRegistry);
+        Connection connection = bulkhead.getConnection();
+
+        // when
+        assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+        connection.close();
+        connection.close();
+
+        // then
+        try (Connection another = bulkhead.getConnection()) {
+            assertThat(another.isValid(1)).isTrue();
+        }
+        assertThat(meterRegistry.get("db.bulkhead.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("db.bulkhead.permits.available").gauge().value()).isEqualTo(1);
+    }
+
+    @DisplayName("Connection으로 unwrap하면 프록시를 돌려주므로 꺼낸 커넥션을 닫아도 허가가 반납되고, Object 메서드는 프록시에서 처리한다.")
+    @Test
+    void unwrapTest() throws SQLException {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConnectionBulkheadDataSource bulkhead = new ConnectionBulkheadDataSource(dataSource, 1, Duration.ofMillis(50), meterRegistry);
+        Connection connection = bulkhead.getConnection();
+
+        // when
+        Connection unwrapped = connection.unwrap(Connection.class);
+        unwrapped.close();
+
+        // then
+        assertThat(unwrapped).isSameAs(connection);
+        assertThat(meterRegistry.get("db.bulkhead.permits.available").gauge().value()).isEqualTo(1);
+        try (Connection another = bulkhead.getConnection()) {
+            assertThat(connection).isEqualTo(connection).isNotEqualTo(another);
+        }
+        assertThat(connection.hashCode()).isEqualTo(System.identityHashCode(connection));
+        assertThat(connection.toString()).startsWith("Bulkhead connection");
+        assertThat(connection.isWrapperFor(Connection.class)).isTrue();
+    }
+}
@@ -0,0 +1,152 @@
+package study.springdatajpa.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.PageRequest;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.repository.CountMode;
+import study.springdatajpa.repository.MemberJpaRepository;
+import study.springdatajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// 저장이 조회 호출 안에서 flush되지 않도록 테스트 트랜잭션을 사용하지 않는다.
+@SpringBootTest
+class RepositoryMetricsAspectTest {
+    private static final String FIND_MEMBERS = "findMembers(String,int)";
+    private static final String CHANGE_USERNAME = "changeUsername(Long,String)";
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    RepositoryMetricsEndpoint repositoryMetricsEndpoint;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("리포지토리 메서드마다 호출 시간, 실행한 SQL 문 개수, 결과 개수를 기록한다.")
+    @Test
+    void recordInvocationTest() {
+        // given
+        memberRepository.save(createMember("memberA", 25));
+        memberRepository.save(createMember("memberA", 25));
+        long invocations = timer("MemberRepository", FIND_MEMBERS).map(Timer::count).orElse(0L);
+        double statements = summaryTotal(RepositoryMetricsAspect.STATEMENTS, "MemberRepository", FIND_MEMBERS);
+        double results = summaryTotal(RepositoryMetricsAspect.RESULTS, "MemberRepository", FIND_MEMBERS);
+
+        // when
+        memberRepository.findMembers("memberA", 25);
+
+        // then
+        assertThat(timer("MemberRepository", FIND_MEMBERS).orElseThrow().count()).isEqualTo(invocations + 1);
+        assertThat(summaryTotal(RepositoryMetricsAspect.STATEMENTS, "MemberRepository", FIND_MEMBERS)).isEqualTo(statements + 1);
+        assertThat(summaryTotal(RepositoryMetricsAspect.RESULTS, "MemberRepository", FIND_MEMBERS)).isEqualTo(results + 2);
+    }
+
+    @DisplayName("예외를 던진 호출은 오류 개수에 더하고, 클래스로 만든 리포지토리는 클래스 이름으로 기록한다.")
+    @Test
+    void recordErrorTest() {
+        // given
+        double errors = errorCount("MemberJpaRepository", CHANGE_USERNAME);
+
+        // when
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> memberJpaRepository.changeUsername(-1L, "memberB"));
+
+        // then
+        assertThat(errorCount("MemberJpaRepository", CHANGE_USERNAME)).isEqualTo(errors + 1);
+        assertThat(timer("MemberJpaRepository", CHANGE_USERNAME)).isPresent();
+    }
+
+    @DisplayName("오버로딩한 메서드는 시그니처별로 따로 기록한다.")
+    @Test
+    void overloadedMethodTest() {
+        // given
+        memberRepository.save(createMember("memberA", 25));
+        String pageable = "findByAge(int,Pageable)";
+        String countMode = "findByAge(int,Pageable,CountMode)";
+        long pageableInvocations = timer("MemberRepository", pageable).map(Timer::count).orElse(0L);
+        long countModeInvocations = timer("MemberRepository", countMode).map(Timer::count).orElse(0L);
+
+        // when
+        memberRepository.findByAge(25, PageRequest.of(0, 3));
+        memberRepository.findByAge(25, PageRequest.of(0, 3), CountMode.EXACT);
+        memberRepository.findByAge(25, PageRequest.of(0, 3), CountMode.EXACT);
+
+        // then
+        assertThat(timer("MemberRepository", pageable).orElseThrow().count()).isEqualTo(pageableInvocations + 1);
+        assertThat(timer("MemberRepository", countMode).orElseThrow().count()).isEqualTo(countModeInvocations + 2);
+        assertThat(timer("MemberRepository", "findByAge")).isEmpty();
+    }
+
+    @DisplayName("엔드포인트는 메서드별 호출 수, 백분위 지연 시간, 평균 SQL 문 개수와 결과 개수를 보여준다.")
+    @Test
+    void endpointTest() {
+        // given
+        memberRepository.save(createMember("memberA", 25));
+        memberRepository.findMembers("memberA", 25);
+
+        // when
+        List<Map<String, Object>> repositories = repositoryMetricsEndpoint.repositories();
+
+        // then
+        Map<String, Object> stats = repositories.stream()
+                .filter(s -> s.get("repository").equals("MemberRepository") && s.get("method").equals(FIND_MEMBERS))
+                .findFirst()
+                .orElseThrow();
+        assertThat((long) stats.get("count")).isPositive();
+        assertThat(stats).containsKeys("meanMs", "maxMs", "p50Ms", "p95Ms", "p99Ms");
+        assertThat((double) stats.get("meanStatements")).isEqualTo(1.0);
+        assertThat((double) stats.get("meanResults")).isPositive();
+        assertThat(repositories).isSortedAccordingTo((a, b) ->
+                (a.get("repository") + "." + a.get("method")).compareTo(b.get("repository") + "." + b.get("method")));
+    }
+
+    private Optional<Timer> timer(String repository, String method) {
+        return Optional.ofNullable(meterRegistry.find(RepositoryMetricsAspect.INVOCATIONS)
+                .tag("repository", repository)
+                .tag("method", method)
+                .timer());
+    }
+
+    private double summaryTotal(String name, String repository, String method) {
+        DistributionSummary summary = meterRegistry.find(name)
+                .tag("repository", repository)
+                .tag("method", method)
+                .summary();
+        return (summary != null) ? summary.totalAmount() : 0;
+    }
+
+    private double errorCount(String repository, String method) {
+        Counter counter = meterRegistry.find(RepositoryMetricsAspect.ERRORS)
+                .tag("repository", repository)
+                .tag("method", method)
+                .counter();
+        return (counter != null) ? counter.count() : 0;
+    }
+
+    private Member createMember(String username, int age) {
+        return Member.builder()
+                .username(username)
+                .age(age)
+                .build();
+    }
+}
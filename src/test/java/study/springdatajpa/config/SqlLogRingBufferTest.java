@@ -0,0 +1,108 @@
+package study.springdatajpa.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlLogRingBufferTest {
+    @DisplayName("용량은 2의 거듭제곱으로 올림되고, 가득 차면 offer가 false를 반환한다.")
+    @Test
+    void fullBufferDropsTest() {
+        // given
+        SqlLogRingBuffer<Integer> buffer = new SqlLogRingBuffer<>(3);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        // when
+        boolean offered = buffer.offer(4);
+
+        // then
+        assertThat(offered).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.size()).isEqualTo(4);
+    }
+
+    @DisplayName("인덱스가 배열 끝을 넘어가도 넣은 순서대로 꺼낸다.")
+    @Test
+    void wrapAroundTest() {
+        // given
+        SqlLogRingBuffer<Integer> buffer = new SqlLogRingBuffer<>(4);
+        List<Integer> polled = new ArrayList<>();
+
+        // when
+        int next = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                buffer.offer(next++);
+            }
+            for (int i = 0; i < 3; i++) {
+                polled.add(buffer.poll());
+            }
+        }
+
+        // then
+        assertThat(polled).hasSize(30);
+        for (int i = 0; i < polled.size(); i++) {
+            assertThat(polled.get(i)).isEqualTo(i);
+        }
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @DisplayName("여러 스레드가 동시에 넣어도 하나의 소비자가 빠짐없이 꺼내고, 버려진 개수와 합치면 넣은 개수와 같다.")
+    @Test
+    void concurrentProducersTest() throws InterruptedException {
+        // given
+        final int producers = 4;
+        final int perProducer = 10_000;
+        SqlLogRingBuffer<int[]> buffer = new SqlLogRingBuffer<>(64);
+        AtomicInteger dropped = new AtomicInteger();
+        int[] lastSequence = new int[producers];
+        Arrays.fill(lastSequence, -1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+
+        // when
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (!buffer.offer(new int[]{producer, i})) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        int received = 0;
+        boolean ordered = true;
+        while (done.getCount() > 0 || buffer.size() > 0) {
+            int[] element = buffer.poll();
+            if (element == null) {
+                continue;
+            }
+            ordered &= element[1] > lastSequence[element[0]];
+            lastSequence[element[0]] = element[1];
+            received++;
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(received + dropped.get()).isEqualTo(producers * perProducer);
+        assertThat(ordered).isTrue();
+    }
+}
@@ -0,0 +1,124 @@
+package study.springdatajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import study.springdatajpa.support.StatementScope;
+
+import javax.servlet.FilterChain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatementBudgetFilterTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(StatementBudgetConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues("statement-budget.enabled=true");
+
+    @DisplayName("예산을 넘거나 같은 모양의 SQL 문이 반복되면 모드와 상관없이 위반 횟수를 기록한다.")
+    @ParameterizedTest
+    @EnumSource(value = StatementBudgetProperties.Mode.class, names = {"LOG", "METRIC"})
+    void countInEveryModeTest(StatementBudgetProperties.Mode mode) throws Exception {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StatementBudgetFilter filter = new StatementBudgetFilter(properties(mode), meterRegistry);
+
+        // when
+        filter.doFilter(request(), new MockHttpServletResponse(), executing(3));
+
+        // then
+        assertThat(meterRegistry.get("http.server.requests.statement.budget.exceeded").tag("uri", "/members/{id}").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.server.requests.statement.repeated").tag("uri", "/members/{id}").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.server.requests.statements").tag("uri", "/members/{id}").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @DisplayName("예산 안에서 실행하면 위반 횟수를 기록하지 않는다.")
+    @Test
+    void withinBudgetTest() throws Exception {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StatementBudgetFilter filter = new StatementBudgetFilter(properties(StatementBudgetProperties.Mode.LOG), meterRegistry);
+
+        // when
+        filter.doFilter(request(), new MockHttpServletResponse(), executing(1));
+
+        // then
+        assertThat(meterRegistry.find("http.server.requests.statement.budget.exceeded").counter()).isNull();
+        assertThat(meterRegistry.find("http.server.requests.statement.repeated").counter()).isNull();
+    }
+
+    @DisplayName("예외로 지정한 URL 패턴은 SQL 문 개수만 기록하고 예산과 N+1 검사를 하지 않는다.")
+    @Test
+    void exemptTest() throws Exception {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StatementBudgetProperties properties = properties(StatementBudgetProperties.Mode.FAIL);
+        properties.setAllowFailMode(true);
+        properties.getExempt().add("/members/{id}");
+        StatementBudgetFilter filter = new StatementBudgetFilter(properties, meterRegistry);
+
+        // when
+        filter.doFilter(request(), new MockHttpServletResponse(), executing(3));
+
+        // then
+        assertThat(meterRegistry.get("http.server.requests.statements").tag("uri", "/members/{id}").summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.find("http.server.requests.statement.budget.exceeded").counter()).isNull();
+        assertThat(meterRegistry.find("http.server.requests.statement.repeated").counter()).isNull();
+    }
+
+    @DisplayName("FAIL 모드에서는 위반을 기록한 뒤 예외를 던진다.")
+    @Test
+    void failModeTest() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StatementBudgetProperties properties = properties(StatementBudgetProperties.Mode.FAIL);
+        properties.setAllowFailMode(true);
+        StatementBudgetFilter filter = new StatementBudgetFilter(properties, meterRegistry);
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request(), new MockHttpServletResponse(), executing(3)));
+        assertThat(meterRegistry.get("http.server.requests.statement.budget.exceeded").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("allow-fail-mode 없이 FAIL 모드를 설정하면 애플리케이션이 시작되지 않는다.")
+    @Test
+    void refuseFailModeTest() {
+        // when & then
+        contextRunner.withPropertyValues("statement-budget.mode=fail")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().hasRootCauseInstanceOf(IllegalStateException.class));
+        contextRunner.withPropertyValues("statement-budget.mode=fail", "statement-budget.allow-fail-mode=true")
+                .run(context -> assertThat(context).hasNotFailed());
+    }
+
+    private StatementBudgetProperties properties(StatementBudgetProperties.Mode mode) {
+        StatementBudgetProperties properties = new StatementBudgetProperties();
+        properties.setMode(mode);
+        properties.setRepeatThreshold(3);
+        properties.getBudgets().put("/members/{id}", 1);
+        return properties;
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/members/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/members/{id}");
+        return request;
+    }
+
+    // 같은 모양의 SQL 문을 count번 실행한 것처럼 현재 범위에 기록한다.
+    private FilterChain executing(int count) {
+        return (request, response) -> {
+            for (int i = 0; i < count; i++) {
+                StatementScope.record("select * from member where member_id = " + i);
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package study.springdatajpa.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.entity.Team;
+import study.springdatajpa.repository.MemberRepository;
+import study.springdatajpa.repository.TeamRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 내보내기는 다른 스레드에서 새 트랜잭션으로 읽으므로 테스트 트랜잭션을 사용하지 않는다.
+@AutoConfigureMockMvc
+@SpringBootTest
+class MemberControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("회원을 한 줄에 한 명씩 NDJSON으로 내보내고, 비동기 요청에는 설정한 timeout을 적용한다.")
+    @Test
+    void exportTest() throws Exception {
+        // given
+        Team team = teamRepository.save(Team.builder().name("teamA").build());
+        memberRepository.save(createMember("memberA", team));
+        memberRepository.save(createMember("memberB", null));
+
+        // when
+        MvcResult result = mockMvc.perform(get("/members/export"))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        // then
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(10).toMillis());
+        List<String> lines = body.lines().collect(Collectors.toList());
+        assertThat(lines).hasSize(2);
+        assertThat(lines).anyMatch(line -> line.contains("\"username\":\"memberA\"") && line.contains("\"teamName\":\"teamA\""));
+        assertThat(lines).anyMatch(line -> line.contains("\"username\":\"memberB\"") && line.contains("\"teamName\":null"));
+    }
+
+    @DisplayName("CSV 가져오기는 row 수만큼 SQL 문을 실행해도 SQL 문 예산과 N+1 검사에서 제외된다.")
+    @Test
+    void importIsExemptFromStatementBudgetTest() throws Exception {
+        // given
+        StringBuilder csv = new StringBuilder("username,age,team\n");
+        for (int i = 0; i < 300; i++) {
+            csv.append("member").append(i).append(",").append(20 + i % 10).append(",team").append(i % 3).append("\n");
+        }
+
+        // when
+        mockMvc.perform(post("/members/import")
+                        .contentType("text/csv")
+                        .content(csv.toString()))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(memberRepository.count()).isEqualTo(300);
+        assertThat(meterRegistry.get("http.server.requests.statements").tag("uri", "/members/import").summary().count()).isPositive();
+        assertThat(meterRegistry.find("http.server.requests.statement.budget.exceeded").tag("uri", "/members/import").counter()).isNull();
+        assertThat(meterRegistry.find("http.server.requests.statement.repeated").tag("uri", "/members/import").counter()).isNull();
+    }
+
+    @DisplayName("올바르지 않은 커서로 회원 목록을 조회하면 400으로 응답한다.")
+    @Test
+    void malformedCursorTest() throws Exception {
+        // when & then
+        mockMvc.perform(get("/members")
+                        .param("mode", "keyset")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Member createMember(String username, Team team) {
+        return Member.builder()
+                .username(username)
+                .age(25)
+                .team(team)
+                .build();
+    }
+}
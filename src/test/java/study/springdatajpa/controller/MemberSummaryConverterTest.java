@@ -0,0 +1,115 @@
+package study.springdatajpa.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.springdatajpa.dto.MemberSummary;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.repository.MemberCsvImporter;
+import study.springdatajpa.repository.MemberRepository;
+import study.springdatajpa.support.StatementScope;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 캐시는 커밋된 변경을 기준으로 비우므로 테스트 트랜잭션을 사용하지 않는다.
+@SpringBootTest
+class MemberSummaryConverterTest {
+    @Autowired
+    MemberSummaryConverter memberSummaryConverter;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberCsvImporter memberCsvImporter;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("한 번 조회한 회원 요약은 쿼리 없이 캐시에서 반환한다.")
+    @Test
+    void cacheHitTest() {
+        // given
+        Member member = memberRepository.save(createMember("memberA"));
+        memberSummaryConverter.convert(String.valueOf(member.getId()));
+
+        try (StatementScope scope = StatementScope.open()) {
+            // when
+            MemberSummary memberSummary = memberSummaryConverter.convert(String.valueOf(member.getId()));
+
+            // then
+            assertThat(memberSummary.getUsername()).isEqualTo("memberA");
+            assertThat(scope.getStatementCount()).isZero();
+        }
+    }
+
+    @DisplayName("회원을 수정하면 캐시된 회원 요약을 비운다.")
+    @Test
+    void evictOnUpdateTest() {
+        // given
+        Member member = memberRepository.save(createMember("memberA"));
+        memberSummaryConverter.convert(String.valueOf(member.getId()));
+
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findById(member.getId()).orElseThrow().setUsername("memberB"));
+
+        // then
+        assertThat(memberSummaryConverter.convert(String.valueOf(member.getId())).getUsername()).isEqualTo("memberB");
+    }
+
+    @DisplayName("배치 삭제와 벌크 연산을 실행하면 캐시된 회원 요약을 비운다.")
+    @Test
+    void invalidateOnBulkChangeTest() {
+        // given
+        Member memberA = memberRepository.save(createMember("memberA"));
+        Member memberB = memberRepository.save(createMember("memberB"));
+        memberSummaryConverter.convert(String.valueOf(memberA.getId()));
+        memberSummaryConverter.convert(String.valueOf(memberB.getId()));
+
+        // when
+        memberRepository.deleteAllByIdInBatch(List.of(memberA.getId()));
+        memberRepository.deleteAllInBatch();
+
+        // then
+        assertThat(memberSummaryConverter.convert(String.valueOf(memberA.getId()))).isNull();
+        assertThat(memberSummaryConverter.convert(String.valueOf(memberB.getId()))).isNull();
+    }
+
+    @DisplayName("CSV로 회원을 가져오면 캐시된 회원 요약을 비운다.")
+    @Test
+    void invalidateOnImportTest() {
+        // given
+        Member member = memberRepository.save(createMember("memberA"));
+        memberSummaryConverter.convert(String.valueOf(member.getId()));
+        try (StatementScope scope = StatementScope.open()) {
+            memberSummaryConverter.convert(String.valueOf(member.getId()));
+            assertThat(scope.getStatementCount()).isZero();
+        }
+
+        // when
+        memberCsvImporter.importCsv(new StringReader("username,age,team\nimported,20,\n"));
+
+        // then
+        try (StatementScope scope = StatementScope.open()) {
+            memberSummaryConverter.convert(String.valueOf(member.getId()));
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    private Member createMember(String username) {
+        return Member.builder()
+                .username(username)
+                .age(25)
+                .build();
+    }
+}
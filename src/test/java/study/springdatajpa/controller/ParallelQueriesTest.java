@@ -0,0 +1,81 @@
+package study.springdatajpa.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelQueriesTest {
+    @DisplayName("세 조회의 결과를 합친다.")
+    @Test
+    void combineTest() throws Exception {
+        // when
+        CompletableFuture<String> result = ParallelQueries.combine(
+                CompletableFuture.completedFuture("a"),
+                CompletableFuture.completedFuture("b"),
+                CompletableFuture.completedFuture("c"),
+                (first, second, third) -> first + second + third,
+                Duration.ofSeconds(1));
+
+        // then
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("abc");
+    }
+
+    @DisplayName("timeout 안에 끝나지 않으면 남은 조회를 취소하고, 큐에서 기다리던 조회는 실행되지 않는다.")
+    @Test
+    void timeoutCancelsQueriesTest() throws Exception {
+        // given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queuedRuns = new AtomicInteger();
+        try {
+            CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> {
+                running.countDown();
+                awaitQuietly(release);
+                return "a";
+            }, executor);
+            CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> {
+                queuedRuns.incrementAndGet();
+                return "b";
+            }, executor);
+            CompletableFuture<String> third = new CompletableFuture<>();
+            running.await(1, TimeUnit.SECONDS);
+
+            // when
+            CompletableFuture<String> result = ParallelQueries.combine(first, second, third,
+                    (a, b, c) -> a + b + c, Duration.ofMillis(50));
+
+            // then
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+            assertThat(exception.getCause()).isInstanceOf(TimeoutException.class);
+            assertThat(first.isCancelled()).isTrue();
+            assertThat(second.isCancelled()).isTrue();
+            assertThat(third.isCancelled()).isTrue();
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        assertThat(queuedRuns).hasValue(0);
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
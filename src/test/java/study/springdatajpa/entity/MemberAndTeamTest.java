@@ -1,13 +1,21 @@
 package study.springdatajpa.entity;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import study.springdatajpa.repository.MemberRepository;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -16,6 +24,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 class MemberAndTeamTest {
     @PersistenceContext
     EntityManager entityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    MemberRepository memberRepository;
 
     @DisplayName("회원과 팀 사이의 연관관계가 매핑된다.")
     @Test
@@ -48,6 +60,200 @@ class MemberAndTeamTest {
         }
     }
 
+    @DisplayName("팀의 회원 컬렉션을 로딩하지 않고 회원을 추가하고 회원 수를 관리한다.")
+    @Test
+    void memberCountWithoutLoadingMembers() {
+        // given
+        Team team = createTeam("teamA");
+        entityManager.persist(team);
+        final int memberCount = 3;
+        for (int i = 0; i < memberCount; i++) {
+            entityManager.persist(createMember(String.valueOf(i), 25, team));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        Team findTeam = entityManager.find(Team.class, team.getId());
+        entityManager.persist(createMember("new", 25, findTeam));
+        entityManager.flush();
+
+        // then
+        assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+        assertThat(findTeam.getMemberCount()).isEqualTo(memberCount + 1);
+    }
+
+    @DisplayName("팀을 조회할 때는 회원 수를 계산하지 않고, 처음 접근할 때 계산한다.")
+    @Test
+    void memberCountIsLazy() {
+        // given
+        Team team = createTeam("teamA");
+        entityManager.persist(team);
+        entityManager.persist(createMember("memberA", 25, team));
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evict(Team.class);
+
+        // when
+        Team findTeam = entityManager.find(Team.class, team.getId());
+
+        // then
+        assertThat(Hibernate.isPropertyInitialized(findTeam, "memberCount")).isFalse();
+        assertThat(findTeam.getMemberCount()).isEqualTo(1);
+        assertThat(Hibernate.isPropertyInitialized(findTeam, "memberCount")).isTrue();
+    }
+
+    @DisplayName("회원의 팀을 바꾸면 두 팀의 회원 컬렉션과 회원 수가 함께 바뀐다.")
+    @Test
+    void changeTeamManagesBothSides() {
+        // given
+        Team teamA = createTeam("teamA");
+        Team teamB = createTeam("teamB");
+        Member member = createMember("memberA", 25, teamA);
+
+        // when
+        member.changeTeam(teamB);
+
+        // then
+        assertThat(teamA.getMembers()).isEmpty();
+        assertThat(teamA.getMemberCount()).isZero();
+        assertThat(teamB.getMembers()).containsExactly(member);
+        assertThat(teamB.getMemberCount()).isEqualTo(1);
+    }
+
+    @DisplayName("회원을 조회할 때 생성 정보는 로딩하지 않는다.")
+    @Test
+    void auditColumnsAreLazy() {
+        // given
+        Member member = createMember("memberA", 25, null);
+        entityManager.persist(member);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        Member findMember = entityManager.createQuery("select m from Member m", Member.class)
+                .getSingleResult();
+
+        // then
+        assertThat(Hibernate.isPropertyInitialized(findMember, "createDate")).isFalse();
+        assertThat(findMember.getCreateDate()).isNotNull();
+        assertThat(Hibernate.isPropertyInitialized(findMember, "createBy")).isTrue();
+    }
+
+    @DisplayName("저장하면 생성/수정 정보가 기록되고, 변경하면 수정 정보만 갱신된다.")
+    @Test
+    void auditingListenerTest() {
+        // given
+        Member member = createMember("memberA", 25, null);
+        entityManager.persist(member);
+        entityManager.flush();
+        LocalDateTime createDate = member.getCreateDate();
+        String createBy = member.getCreateBy();
+
+        // when
+        member.setUsername("memberB");
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        Member findMember = entityManager.find(Member.class, member.getId());
+        assertThat(findMember.getCreateDate()).isEqualTo(createDate);
+        assertThat(findMember.getCreateBy()).isNotNull().isEqualTo(createBy);
+        assertThat(findMember.getLastModifiedDate()).isAfterOrEqualTo(createDate);
+        assertThat(findMember.getLastModifiedBy()).isNotNull().matches("[0-9a-f]{1,16}");
+    }
+
+    @DisplayName("두 트랜잭션이 같은 팀에 동시에 회원을 추가해도 충돌하지 않고, 캐시된 팀도 회원 수가 갱신된다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void concurrentJoinTest() {
+        // given
+        Team team = createTeam("teamA");
+        executeInTransaction(em -> em.persist(team));
+        inTransaction(em -> em.find(Team.class, team.getId()));
+        EntityManager first = entityManagerFactory.createEntityManager();
+        EntityManager second = entityManagerFactory.createEntityManager();
+        try {
+            first.getTransaction().begin();
+            second.getTransaction().begin();
+            Team firstTeam = first.find(Team.class, team.getId());
+            Team secondTeam = second.find(Team.class, team.getId());
+
+            // when
+            first.persist(createMember("memberA", 25, firstTeam));
+            second.persist(createMember("memberB", 25, secondTeam));
+            first.getTransaction().commit();
+            second.getTransaction().commit();
+        } finally {
+            first.close();
+            second.close();
+        }
+
+        // then
+        try {
+            assertThat(entityManagerFactory.getCache().contains(Team.class, team.getId())).isFalse();
+            assertThat(memberCount(team.getId())).isEqualTo(2);
+            assertThat(inTransaction(em -> em.find(Team.class, team.getId())).getVersion()).isEqualTo(team.getVersion());
+        } finally {
+            deleteAll();
+        }
+    }
+
+    @DisplayName("회원을 대량으로 삭제하면 캐시된 팀의 회원 수도 바뀐다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void memberCountAfterBulkDeleteTest() {
+        // given
+        Team team = createTeam("teamA");
+        executeInTransaction(em -> {
+            em.persist(team);
+            em.persist(createMember("memberA", 25, team));
+            em.persist(createMember("memberB", 25, team));
+        });
+        assertThat(memberCount(team.getId())).isEqualTo(2);
+
+        // when
+        memberRepository.deleteAllInBatch();
+
+        // then
+        try {
+            assertThat(memberCount(team.getId())).isZero();
+        } finally {
+            deleteAll();
+        }
+    }
+
+    // 회원 수는 지연 로딩하므로 트랜잭션 안에서 읽는다.
+    private int memberCount(Long teamId) {
+        return inTransaction(em -> em.find(Team.class, teamId).getMemberCount());
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> action) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            T result = action.apply(em);
+            em.getTransaction().commit();
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    private void executeInTransaction(Consumer<EntityManager> action) {
+        inTransaction(em -> {
+            action.accept(em);
+            return null;
+        });
+    }
+
+    private void deleteAll() {
+        executeInTransaction(em -> {
+            em.createQuery("delete from Member m").executeUpdate();
+            em.createQuery("delete from Team t").executeUpdate();
+        });
+    }
+
     private Team createTeam(String name) {
         return Team.builder()
                 .name(name)
@@ -0,0 +1,147 @@
+package study.springdatajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.entity.Team;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MemberCsvImporterTest {
+    @Autowired
+    MemberCsvImporter memberCsvImporter;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("CSV의 올바른 row만 저장하고 거부된 row와 팀의 회원 수를 함께 반영한다.")
+    @Test
+    void importCsvTest() {
+        // given
+        Team team = teamRepository.save(Team.builder().name("teamA").build());
+        String csv = "username,age,team\n"
+                + "memberA,20,teamA\n"
+                + "memberB,25,teamA\n"
+                + "memberC,30,\n"
+                + "memberD,abc,teamA\n"
+                + "memberE,35,teamZ\n"
+                + "memberF,40,teamZ\n";
+
+        // when
+        MemberImportReport report = memberCsvImporter.importCsv(new StringReader(csv));
+
+        // then
+        assertThat(report.getReadRows()).isEqualTo(6);
+        assertThat(report.getInsertedRows()).isEqualTo(5);
+        assertThat(report.getRejectedRows()).isEqualTo(1);
+        assertThat(report.getRejections()).containsExactly("line 5: age가 숫자가 아닙니다: abc");
+        assertThat(memberRepository.findAll()).extracting(Member::getUsername)
+                .containsExactlyInAnyOrder("memberA", "memberB", "memberC", "memberE", "memberF");
+        assertThat(memberCount(team.getId())).isEqualTo(2);
+    }
+
+    @DisplayName("CSV에 없는 팀은 한 번만 새로 만들고 회원을 그 팀에 넣는다.")
+    @Test
+    void createMissingTeamTest() {
+        // given
+        String csv = "username,age,team\n"
+                + "memberA,20,teamZ\n"
+                + "memberB,25,teamZ\n";
+
+        // when
+        memberCsvImporter.importCsv(new StringReader(csv));
+
+        // then
+        List<Team> teams = teamRepository.findAll();
+        assertThat(teams).extracting(Team::getName).containsExactly("teamZ");
+        assertThat(memberCount(teams.get(0).getId())).isEqualTo(2);
+    }
+
+    @DisplayName("따옴표로 감싼 값과 컬럼 수가 맞지 않는 row는 지원하지 않는 형식으로 거부한다.")
+    @Test
+    void restrictedFormatTest() {
+        // given
+        String csv = "username,age,team\n"
+                + "\"kim, minsu\",20,\n"
+                + "\"memberB\",25,\n"
+                + "memberC,30\n"
+                + "memberD,35,teamA,extra\n"
+                + " memberE , 40 , \n";
+
+        // when
+        MemberImportReport report = memberCsvImporter.importCsv(new StringReader(csv));
+
+        // then
+        assertThat(report.getRejections()).containsExactly(
+                "line 2: 따옴표로 감싼 값은 지원하지 않습니다.",
+                "line 3: 따옴표로 감싼 값은 지원하지 않습니다.",
+                "line 4: 컬럼 수가 3개가 아닙니다.",
+                "line 5: 컬럼 수가 3개가 아닙니다.");
+        assertThat(memberRepository.findAll()).extracting(Member::getUsername).containsExactly("memberE");
+    }
+
+    @DisplayName("가져오면 JDBC로 바뀐 회원과 팀의 2차 캐시를 비운다.")
+    @Test
+    void evictOnlyMemberAndTeamRegionsTest() {
+        // given
+        Team team = teamRepository.save(Team.builder().name("teamA").build());
+        Member member = memberRepository.save(Member.builder().username("memberA").age(20).build());
+        Cache cache = entityManagerFactory.getCache();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            teamRepository.findById(team.getId());
+            memberRepository.findById(member.getId());
+        });
+        assertThat(cache.contains(Team.class, team.getId())).isTrue();
+        assertThat(cache.contains(Member.class, member.getId())).isTrue();
+
+        // when
+        memberCsvImporter.importCsv(new StringReader("username,age,team\nmemberB,25,teamA\n"));
+
+        // then
+        assertThat(cache.contains(Team.class, team.getId())).isFalse();
+        assertThat(cache.contains(Member.class, member.getId())).isFalse();
+    }
+
+    @DisplayName("가져온 회원과 JPA로 저장하는 회원의 식별자가 겹치지 않는다.")
+    @Test
+    void importedIdsDoNotCollideTest() {
+        // given
+        memberCsvImporter.importCsv(new StringReader("username,age,team\nmemberA,20,\n"));
+
+        // when
+        Member saved = memberRepository.save(Member.builder().username("memberB").age(25).build());
+
+        // then
+        List<Member> members = memberRepository.findAll();
+        assertThat(members).hasSize(2);
+        assertThat(members).extracting(Member::getId).doesNotHaveDuplicates().contains(saved.getId());
+    }
+
+    // 회원 수는 지연 로딩하므로 트랜잭션 안에서 읽는다.
+    private int memberCount(Long teamId) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> teamRepository.findById(teamId).orElseThrow().getMemberCount());
+    }
+}
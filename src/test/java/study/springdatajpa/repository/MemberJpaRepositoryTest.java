@@ -4,11 +4,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import study.springdatajpa.entity.Member;
 import study.springdatajpa.entity.Team;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -18,6 +21,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MemberRepository memberRepository;
 
     @DisplayName("회원을 저장한다.")
     @Test
@@ -37,6 +42,42 @@ class MemberJpaRepositoryTest {
         assertThat(findMember.getTeam()).isEqualTo(savedMember.getTeam());
     }
 
+    @DisplayName("회원들을 배치로 저장한다.")
+    @Test
+    void saveAllBatchedTest() {
+        // given
+        final int count = 250;
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(createMember(String.valueOf(i), 25, null));
+        }
+
+        // when
+        long savedCount = memberJpaRepository.saveAllBatched(members);
+
+        // then
+        assertThat(savedCount).isEqualTo(count);
+        assertThat(members).allMatch(member -> member.getId() != null);
+        assertThat(memberJpaRepository.count()).isEqualTo(count);
+    }
+
+    @DisplayName("지연 생성한 회원들을 모아 두지 않고 배치로 저장한다.")
+    @Test
+    void saveAllBatchedStreamingTest() {
+        // given
+        final int count = 250;
+        Iterable<Member> members = () -> IntStream.range(0, count)
+                .mapToObj(i -> createMember(String.valueOf(i), 25, null))
+                .iterator();
+
+        // when
+        long savedCount = memberJpaRepository.saveAllBatched(members);
+
+        // then
+        assertThat(savedCount).isEqualTo(count);
+        assertThat(memberJpaRepository.count()).isEqualTo(count);
+    }
+
     @DisplayName("회원을 삭제한다.")
     @Test
     void deleteTest() {
@@ -144,6 +185,31 @@ class MemberJpaRepositoryTest {
         assertThat(resultCount).isEqualTo(count);
     }
 
+    @DisplayName("회원 나이를 청크 단위 트랜잭션으로 일괄 수정한다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void chunkedBulkUpdateTest() {
+        // given
+        final int count = 5;
+        for (int i = 0; i < count; i++) {
+            memberRepository.save(createMember(String.valueOf(i), 25 + i, null));
+        }
+
+        try {
+            // when
+            BulkUpdateProgress progress = memberJpaRepository.bulkAgePlus(26, BulkUpdateOptions.builder()
+                    .chunkSize(2)
+                    .parallelism(2)
+                    .build());
+
+            // then
+            assertThat(progress.isDone()).isTrue();
+            assertThat(progress.getUpdatedRows()).isEqualTo(count - 1);
+        } finally {
+            memberRepository.deleteAllInBatch();
+        }
+    }
+
     private Member createMember(String username, int age, Team team) {
         return Member.builder()
                 .username(username)
@@ -1,21 +1,42 @@
 package study.springdatajpa.repository;
 
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQL10Dialect;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.springdatajpa.dto.CursorPage;
 import study.springdatajpa.dto.MemberDto;
+import study.springdatajpa.dto.MemberSummary;
 import study.springdatajpa.entity.Member;
 import study.springdatajpa.entity.Team;
+import study.springdatajpa.support.MemberCountCache;
+import study.springdatajpa.support.StatementScope;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -27,6 +48,12 @@ class MemberRepositoryTest {
     MemberRepository memberRepository;
     @Autowired
     TeamRepository teamRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MemberCountCache memberCountCache;
+    @Autowired
+    ChunkedBulkUpdateExecutor chunkedBulkUpdateExecutor;
     @PersistenceContext
     EntityManager entityManager;
 
@@ -172,6 +199,28 @@ class MemberRepositoryTest {
         assertThat(memberDtos.get(0)).isInstanceOf(MemberDto.class);
     }
 
+    @DisplayName("팀이 없는 회원을 포함한 회원 정보들을 dto로 페이징 조회한다.")
+    @Test
+    void findMemberDtosWithPageTest() {
+        // given
+        Team team = createTeam("teamA");
+        teamRepository.save(team);
+        memberRepository.save(createMember("memberA", 20, team));
+        memberRepository.save(createMember("memberB", 25, null));
+        memberRepository.save(createMember("memberC", 30, team));
+
+        // when
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "username"));
+        Page<MemberDto> memberDtoPage = memberRepository.findMemberDtos(pageRequest);
+
+        // then
+        assertThat(memberDtoPage.getTotalElements()).isEqualTo(3);
+        assertThat(memberDtoPage.getContent())
+                .extracting(MemberDto::getUsername)
+                .containsExactly("memberA", "memberB");
+        assertThat(memberDtoPage.getContent().get(1).getTeamName()).isNull();
+    }
+
     @DisplayName("특정 이름들을 가진 회원들을 조회한다.")
     @Test
     void findByUsernamesTest() {
@@ -192,6 +241,76 @@ class MemberRepositoryTest {
         assertThat(members).contains(memberA, memberB);
     }
 
+    @DisplayName("청크 크기보다 많은 이름과 id로 회원들을 트랜잭션 밖에서 나눠서 조회한다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void findByUsernamesInChunksTest() {
+        // given
+        final int count = 1200;
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(createMember("member" + i, 20, null));
+        }
+        memberRepository.saveAll(members);
+        List<String> usernames = members.stream().map(Member::getUsername).collect(Collectors.toList());
+        List<Long> ids = members.stream().map(Member::getId).collect(Collectors.toList());
+
+        try {
+            // when
+            List<Member> byUsernames = memberRepository.findByUsernames(usernames);
+            List<Member> byIds = memberRepository.findAllById(ids);
+
+            // then
+            assertThat(byUsernames).extracting(Member::getUsername).containsExactlyInAnyOrderElementsOf(usernames);
+            assertThat(byIds).extracting(Member::getId).containsExactlyInAnyOrderElementsOf(ids);
+        } finally {
+            memberRepository.deleteAllInBatch();
+        }
+    }
+
+    @DisplayName("비동기 조회 메서드는 별도 스레드의 읽기 전용 트랜잭션에서 실행되고 연관 엔티티도 함께 조회한다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void asyncQueryTest() throws Exception {
+        // given
+        Team team = createTeam("teamA");
+        teamRepository.save(team);
+        memberRepository.save(createMember("memberA", 20, team));
+        memberRepository.save(createMember("memberB", 25, team));
+
+        try {
+            // when
+            CompletableFuture<Page<Member>> byAge = memberRepository.findAsyncByAge(20, PageRequest.of(0, 10));
+            CompletableFuture<Page<MemberDto>> memberDtos = memberRepository.findMemberDtosAsync(PageRequest.of(0, 10));
+            CompletableFuture<List<String>> usernames = memberRepository.findUsernamesAsync();
+
+            // then
+            Page<Member> members = byAge.get(5, TimeUnit.SECONDS);
+            assertThat(members.getContent()).extracting(Member::getUsername).containsExactly("memberA");
+            assertThat(members.getContent().get(0).getTeam().getName()).isEqualTo("teamA");
+            assertThat(memberDtos.get(5, TimeUnit.SECONDS).getTotalElements()).isEqualTo(2);
+            assertThat(usernames.get(5, TimeUnit.SECONDS)).containsExactlyInAnyOrder("memberA", "memberB");
+        } finally {
+            memberRepository.deleteAllInBatch();
+            teamRepository.deleteAllInBatch();
+        }
+    }
+
+    @DisplayName("회원의 id와 이름만 조회한다.")
+    @Test
+    void findSummaryByIdTest() {
+        // given
+        Member member = memberRepository.save(createMember("memberA", 25, null));
+
+        // when
+        MemberSummary memberSummary = memberRepository.findSummaryById(member.getId())
+                .orElseThrow(() -> new IllegalArgumentException("id: " + member.getId() + " 회원은 존재하지 않습니다."));
+
+        // then
+        assertThat(memberSummary.getId()).isEqualTo(member.getId());
+        assertThat(memberSummary.getUsername()).isEqualTo(member.getUsername());
+    }
+
     @DisplayName("List<Member>, Member, Optional<Member>을 반환한다.")
     @Test
     void returnTypeTest() {
@@ -238,6 +357,192 @@ class MemberRepositoryTest {
         assertThat(memberPage.hasNext()).isEqualTo((count != limit) ? true : false);
     }
 
+    @DisplayName("특정 나이인 회원들을 페이징 조회할 때 캐시된 전체 개수를 사용한다.")
+    @Test
+    void findByPageWithCachedCountTest() {
+        // given
+        final int age = 25;
+        final long count = 7;
+        for (int i = 0; i < count; i++) {
+            memberRepository.save(createMember(String.valueOf(i), age, null));
+        }
+
+        // when
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+        Page<Member> firstPage = memberRepository.findByAge(age, pageRequest, CountMode.CACHED);
+        Page<Member> secondPage = memberRepository.findByAge(age, pageRequest.next(), CountMode.CACHED);
+
+        // then
+        assertThat(firstPage.getTotalElements()).isEqualTo(count);
+        assertThat(secondPage.getTotalElements()).isEqualTo(count);
+        assertThat(secondPage.getContent()).doesNotContainAnyElementsOf(firstPage.getContent());
+    }
+
+    @DisplayName("캐시된 전체 개수가 있으면 count 쿼리를 실행하지 않는다.")
+    @Test
+    void cachedCountSkipsCountQueryTest() {
+        // given
+        final int age = 25;
+        for (int i = 0; i < 7; i++) {
+            memberRepository.save(createMember(String.valueOf(i), age, null));
+        }
+        entityManager.flush();
+        PageRequest pageRequest = PageRequest.of(0, 3);
+        memberRepository.findByAge(age, pageRequest, CountMode.CACHED);
+
+        try (StatementScope scope = StatementScope.open()) {
+            // when
+            Page<Member> cachedPage = memberRepository.findByAge(age, pageRequest.next(), CountMode.CACHED);
+            int cachedStatementCount = scope.getStatementCount();
+            memberRepository.findByAge(age, pageRequest.next(), CountMode.EXACT);
+
+            // then
+            assertThat(cachedPage.getTotalElements()).isEqualTo(7);
+            assertThat(cachedStatementCount).isEqualTo(1);
+            assertThat(scope.getStatementCount() - cachedStatementCount).isEqualTo(2);
+        }
+    }
+
+    @DisplayName("추정 count는 count 쿼리 대신 DB 통계를 조회한다.")
+    @Test
+    void estimatedCountTest() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(createMember(String.valueOf(i), 25, null));
+        }
+        entityManager.flush();
+
+        try (StatementScope scope = StatementScope.open()) {
+            // when
+            Page<MemberDto> page = memberRepository.findMemberDtos(PageRequest.of(0, 2), CountMode.ESTIMATED);
+
+            // then
+            assertThat(page.getContent()).hasSize(2);
+            assertThat(scope.getCountsByShape().keySet())
+                    .anyMatch(shape -> shape.contains("row_count_estimate"))
+                    .noneMatch(shape -> shape.contains("count("));
+        }
+    }
+
+    @DisplayName("벌크 연산과 배치 삭제를 실행하면 캐시된 전체 개수를 비운다.")
+    @Test
+    void cachedCountInvalidationTest() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            members.add(memberRepository.save(createMember(String.valueOf(i), 25, null)));
+        }
+        memberRepository.save(createMember("older", 26, null));
+        entityManager.flush();
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        assertThat(memberRepository.findByAge(25, pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(4);
+        assertThat(memberRepository.findByAge(26, pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(1);
+        assertThat(memberRepository.findMemberDtos(pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(5);
+
+        // when & then
+        memberRepository.deleteAllByIdInBatch(List.of(members.get(0).getId()));
+        assertThat(memberRepository.findByAge(25, pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(3);
+
+        memberRepository.deleteAllInBatch(List.of(members.get(1)));
+        assertThat(memberRepository.findByAge(25, pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(2);
+
+        memberRepository.bulkAgePlus(25);
+        assertThat(memberRepository.findByAge(26, pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(2);
+
+        // 모두 삭제하면 count 쿼리가 필요한 페이지가 없으므로 캐시를 직접 확인한다.
+        memberRepository.deleteAllInBatch();
+        assertThat(memberCountCache.get(List.of("count(Member)"), () -> -1L)).isEqualTo(-1L);
+    }
+
+    @DisplayName("나이가 같은 회원이 페이지 경계에 걸쳐 있어도 커서로 모든 회원을 (나이, id) 순서대로 한 번씩 조회한다.")
+    @Test
+    void findAllWithCursorTest() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int age : new int[]{20, 25, 25, 25, 25, 30, 30}) {
+            members.add(memberRepository.save(createMember("member" + members.size(), age, null)));
+        }
+        List<Long> expectedIds = members.stream()
+                .sorted(Comparator.comparing(Member::getAge).thenComparing(Member::getId))
+                .map(Member::getId)
+                .collect(Collectors.toList());
+
+        // when
+        final int size = 3;
+        List<Long> ids = new ArrayList<>();
+        CursorPage<Member> page = memberRepository.findAll(null, size);
+        ids.addAll(page.getContent().stream().map(Member::getId).collect(Collectors.toList()));
+        while (page.hasNext()) {
+            page = memberRepository.findAll(page.getNextCursor(), size);
+            ids.addAll(page.getContent().stream().map(Member::getId).collect(Collectors.toList()));
+        }
+
+        // then
+        assertThat(ids).containsExactlyElementsOf(expectedIds);
+    }
+
+    @DisplayName("올바르지 않은 커서로 조회하면 예외가 발생한다.")
+    @Test
+    void findAllWithMalformedCursorTest() {
+        // when & then
+        InvalidDataAccessApiUsageException exception = assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> memberRepository.findAll("not-a-cursor", 3));
+        assertThat(exception.getMostSpecificCause()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("특정 나이인 회원들을 커서로 페이징 조회한다.")
+    @Test
+    void findByAgeWithCursorTest() {
+        // given
+        final int age = 25;
+        final int count = 7;
+        for (int i = 0; i < count; i++) {
+            Member member = createMember(String.valueOf(i), age, null);
+            memberRepository.save(member);
+        }
+        memberRepository.save(createMember("other", age + 1, null));
+
+        // when
+        final int size = 3;
+        CursorPage<Member> firstPage = memberRepository.findByAge(age, null, size);
+        CursorPage<Member> secondPage = memberRepository.findByAge(age, firstPage.getNextCursor(), size);
+        CursorPage<Member> lastPage = memberRepository.findByAge(age, secondPage.getNextCursor(), size);
+
+        // then
+        assertThat(firstPage.getContent().size()).isEqualTo(size);
+        assertThat(secondPage.getContent().size()).isEqualTo(size);
+        assertThat(lastPage.getContent().size()).isEqualTo(count - size * 2);
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(lastPage.hasNext()).isFalse();
+        assertThat(secondPage.getContent()).doesNotContainAnyElementsOf(firstPage.getContent());
+    }
+
+    @DisplayName("회원들과 함께 조회한 팀을 스트림으로 조회하면서 영속성 컨텍스트에서 분리한다.")
+    @Test
+    void streamAllTest() {
+        // given
+        final int count = 3;
+        Team team = teamRepository.save(createTeam("teamA"));
+        for (int i = 0; i < count; i++) {
+            Member member = createMember(String.valueOf(i), 25, team);
+            memberRepository.save(member);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<Member> members;
+        try (Stream<Member> stream = memberRepository.streamAll(2)) {
+            members = stream.collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(members.size()).isEqualTo(count);
+        assertThat(members).noneMatch(entityManager::contains);
+        assertThat(members).allMatch(member -> member.getTeam().getName().equals("teamA"));
+        assertThat(members).noneMatch(member -> entityManager.contains(member.getTeam()));
+    }
+
     @DisplayName("특정 나이 이상인 모든 회원들의 나이를 현재 나이 + 1 한다.")
     @Test
     void bulkUpdateTest() {
@@ -256,6 +561,99 @@ class MemberRepositoryTest {
         assertThat(resultCount).isEqualTo(count);
     }
 
+    @DisplayName("벌크 업데이트를 id 범위 청크로 나눠서 병렬로 실행한다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void chunkedBulkUpdateTest() {
+        // given
+        final int age = 25;
+        final int count = 10;
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(createMember(String.valueOf(i), age + (i % 2), null));
+        }
+        memberRepository.saveAll(members);
+
+        try {
+            // when
+            BulkUpdateOptions options = BulkUpdateOptions.builder()
+                    .chunkSize(3)
+                    .parallelism(2)
+                    .build();
+            BulkUpdateProgress progress = memberRepository.bulkAgePlus(age, options);
+
+            // then
+            assertThat(progress.isDone()).isTrue();
+            assertThat(progress.getUpdatedRows()).isEqualTo(count);
+        } finally {
+            memberRepository.deleteAllInBatch();
+        }
+    }
+
+    @DisplayName("청크 벌크 업데이트는 바뀐 회원만 2차 캐시에서 비운다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void chunkedBulkUpdateEvictsUpdatedMembersTest() {
+        // given
+        Member younger = memberRepository.save(createMember("younger", 20, null));
+        Member older = memberRepository.save(createMember("older", 30, null));
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        memberRepository.findById(younger.getId());
+        memberRepository.findById(older.getId());
+
+        try {
+            // when
+            memberRepository.bulkAgePlus(25, BulkUpdateOptions.builder().build());
+
+            // then
+            assertThat(cache.contains(Member.class, younger.getId())).isTrue();
+            assertThat(cache.contains(Member.class, older.getId())).isFalse();
+            assertThat(memberRepository.findById(older.getId()).orElseThrow().getAge()).isEqualTo(31);
+        } finally {
+            memberRepository.deleteAllInBatch();
+        }
+    }
+
+    @DisplayName("청크 하나가 실패하면 남은 청크는 실행하지 않고 진행 상황과 함께 예외가 발생한다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void chunkedBulkUpdateStopsAfterFailureTest() {
+        // given
+        final int count = 20;
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(createMember(String.valueOf(i), 25, null));
+        }
+        memberRepository.saveAll(members);
+        Long failingId = members.get(0).getId();
+
+        try {
+            // when
+            BulkUpdateOptions options = BulkUpdateOptions.builder()
+                    .chunkSize(1)
+                    .parallelism(2)
+                    .build();
+            BulkUpdateException exception = assertThrows(BulkUpdateException.class, () ->
+                    chunkedBulkUpdateExecutor.execute(Member.class, "age = age + 1", "1 / (member_id - :failingId) <> 0",
+                            Map.of("failingId", failingId), options));
+
+            // then
+            BulkUpdateProgress progress = exception.getProgress();
+            assertThat(progress.isCompleted(failingId)).isFalse();
+            assertThat(progress.getCompletedChunks().size()).isLessThan(count - 1);
+        } finally {
+            memberRepository.deleteAllInBatch();
+        }
+    }
+
+    @DisplayName("트랜잭션 안에서 청크 벌크 업데이트를 호출하면 예외가 발생한다.")
+    @Test
+    void chunkedBulkUpdateInTransactionTest() {
+        // when & then
+        // 리포지토리 프록시가 IllegalStateException을 스프링 예외로 바꾼다.
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> memberRepository.bulkAgePlus(25, BulkUpdateOptions.builder().build()));
+    }
+
     @DisplayName("회원을 조회할 때 팀도 같이 조회한다.")
     @Test
     void findMembersWithTeam() {
@@ -279,6 +677,49 @@ class MemberRepositoryTest {
         }
     }
 
+    @DisplayName("팀을 함께 조회하면 dto로 변환할 때 추가 쿼리가 실행되지 않는다.")
+    @Test
+    void findMembersWithTeamStatementCountTest() {
+        // given
+        Team team = createTeam("teamA");
+        teamRepository.save(team);
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(createMember("member" + i, 25, team));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        try (StatementScope scope = StatementScope.open()) {
+            // when
+            List<MemberDto> memberDtos = memberRepository.findMembersWithTeam().stream()
+                    .map(MemberDto::of)
+                    .collect(Collectors.toList());
+
+            // then
+            assertThat(memberDtos).hasSize(5);
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @DisplayName("같은 모양의 쿼리가 반복해서 실행되면 한 모양으로 묶어서 센다.")
+    @Test
+    void repeatedStatementShapeTest() {
+        // given
+        memberRepository.save(createMember("memberA", 20, null));
+        entityManager.flush();
+
+        try (StatementScope scope = StatementScope.open()) {
+            // when
+            for (int age = 20; age < 23; age++) {
+                memberRepository.findMembers("memberA", age);
+            }
+
+            // then
+            assertThat(scope.getStatementCount()).isEqualTo(3);
+            assertThat(scope.getRepeatedShapes(3)).hasSize(1);
+        }
+    }
+
     @DisplayName("쿼리 힌트가 적용된다.")
     @Test
     void queryHintTest() {
@@ -307,6 +748,82 @@ class MemberRepositoryTest {
         Member findMember = memberRepository.findLockByUsername("joy");
     }
 
+    @DisplayName("잠기지 않은 회원들을 최대 개수만큼 잠근다.")
+    @Test
+    void claimTest() {
+        // given
+        final int age = 25;
+        final int count = 5;
+        for (int i = 0; i < count; i++) {
+            memberRepository.save(createMember(String.valueOf(i), age, null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        final int limit = 3;
+        List<Member> members = memberRepository.claimByAge(age, limit);
+
+        // then
+        assertThat(members.size()).isEqualTo(limit);
+    }
+
+    @DisplayName("인덱스 힌트는 H2에서만 붙이고 다른 DB는 (age, member_id) 인덱스로 잠글 회원을 찾는다.")
+    @Test
+    void claimByAgeSqlTest() {
+        // when
+        String h2 = MemberRepositoryImpl.claimByAgeSql(new H2Dialect());
+        String postgres = MemberRepositoryImpl.claimByAgeSql(new PostgreSQL10Dialect());
+
+        // then
+        assertThat(h2).contains("use index ()");
+        assertThat(postgres).doesNotContain("use index").endsWith("for update skip locked");
+    }
+
+    @DisplayName("다른 트랜잭션이 잠근 회원은 건너뛰고, 기다리지 않거나 정해진 시간만 기다리는 조회는 잠긴 회원을 만나면 실패한다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void claimConcurrentlyTest() {
+        // given
+        final int age = 25;
+        final int count = 4;
+        for (int i = 0; i < count; i++) {
+            memberRepository.save(createMember(String.valueOf(i), age, null));
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        TransactionTemplate otherTransactionTemplate = new TransactionTemplate(transactionManager);
+        otherTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        final Duration timeout = Duration.ofMillis(500);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // when
+                final int limit = 2;
+                List<Member> claimed = memberRepository.claimByAge(age, limit);
+                List<Member> otherClaimed = otherTransactionTemplate.execute(otherStatus -> memberRepository.claimByAge(age, limit));
+                long nowaitStart = System.nanoTime();
+                assertThrows(PessimisticLockingFailureException.class, () -> otherTransactionTemplate.executeWithoutResult(otherStatus ->
+                        memberRepository.claimByAgeNowait(age, count)));
+                long nowaitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nowaitStart);
+                long waitStart = System.nanoTime();
+                assertThrows(PessimisticLockingFailureException.class, () -> otherTransactionTemplate.executeWithoutResult(otherStatus ->
+                        memberRepository.claimByAge(age, count, timeout)));
+                long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waitStart);
+
+                // then
+                List<Long> claimedIds = claimed.stream().map(Member::getId).collect(Collectors.toList());
+                assertThat(claimedIds).hasSize(limit);
+                assertThat(otherClaimed).hasSize(limit)
+                        .extracting(Member::getId)
+                        .doesNotContainAnyElementsOf(claimedIds);
+                assertThat(nowaitMillis).isLessThan(timeout.toMillis());
+                assertThat(waitMillis).isGreaterThanOrEqualTo(timeout.toMillis());
+            });
+        } finally {
+            memberRepository.deleteAllInBatch();
+        }
+    }
+
     @DisplayName("생성일 & 생성자 & 수정일 & 수정자를 확인한다.")
     @Test
     void eventBaseEntityTest() throws InterruptedException {
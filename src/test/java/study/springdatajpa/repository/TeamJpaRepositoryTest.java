@@ -1,12 +1,19 @@
 package study.springdatajpa.repository;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import study.springdatajpa.config.SqlStatementCounter;
+import study.springdatajpa.entity.Member;
 import study.springdatajpa.entity.Team;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -17,6 +24,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 class TeamJpaRepositoryTest {
     @Autowired
     TeamJpaRepository teamJpaRepository;
+    @PersistenceContext
+    EntityManager entityManager;
 
     @DisplayName("팀을 저장한다.")
     @Test
@@ -35,6 +44,20 @@ class TeamJpaRepositoryTest {
         assertThat(findTeam.getMembers()).isEqualTo(savedTeam.getMembers());
     }
 
+    @DisplayName("팀들을 배치로 저장한다.")
+    @Test
+    void saveAllBatchedTest() {
+        // given
+        List<Team> teams = List.of(createTeam("teamA"), createTeam("teamB"), createTeam("teamC"));
+
+        // when
+        long savedCount = teamJpaRepository.saveAllBatched(teams);
+
+        // then
+        assertThat(savedCount).isEqualTo(teams.size());
+        assertThat(teamJpaRepository.count()).isEqualTo(teams.size());
+    }
+
     @DisplayName("팀을 삭제한다.")
     @Test
     void deleteTest() {
@@ -67,6 +90,33 @@ class TeamJpaRepositoryTest {
         assertThat(teams.size()).isEqualTo(teamCount);
     }
 
+    @DisplayName("팀들을 조회할 때 회원 컬렉션을 팀마다 쿼리하지 않고 한 번에 초기화한다.")
+    @ParameterizedTest
+    @EnumSource(value = FetchStrategy.class, names = {"BATCH", "JOIN"})
+    void findAllWithFetchStrategyTest(FetchStrategy fetchStrategy) {
+        // given
+        final int teamCount = 5;
+        for (int i = 0; i < teamCount; i++) {
+            Team team = teamJpaRepository.save(createTeam("team" + i));
+            entityManager.persist(Member.builder()
+                    .username("member" + i)
+                    .age(25)
+                    .team(team)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        long statementsBefore = SqlStatementCounter.current();
+        List<Team> teams = teamJpaRepository.findAll(fetchStrategy);
+
+        // then
+        assertThat(teams.size()).isEqualTo(teamCount);
+        assertThat(teams).allMatch(team -> Hibernate.isInitialized(team.getMembers()));
+        assertThat(SqlStatementCounter.current() - statementsBefore).isLessThanOrEqualTo(2);
+    }
+
     private Team createTeam(String name) {
         return Team.builder()
                 .name(name)
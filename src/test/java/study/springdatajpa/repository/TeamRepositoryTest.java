@@ -1,12 +1,17 @@
 package study.springdatajpa.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import study.springdatajpa.entity.Team;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -17,6 +22,10 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 class TeamRepositoryTest {
     @Autowired
     TeamRepository teamRepository;
+    @PersistenceContext
+    EntityManager entityManager;
+    @Autowired
+    MeterRegistry meterRegistry;
 
     @DisplayName("팀을 저장한다.")
     @Test
@@ -67,6 +76,58 @@ class TeamRepositoryTest {
         assertThat(teams.size()).isEqualTo(teamCount);
     }
 
+    // 같은 트랜잭션에서 저장한 엔티티는 커밋할 때 2차 캐시에 넣으므로 저장을 먼저 커밋한다.
+    @DisplayName("조회한 팀은 2차 캐시에 저장된다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void secondLevelCacheTest() {
+        // given
+        Team team = teamRepository.save(createTeam("teamA"));
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Team.class);
+
+        try {
+            // when
+            teamRepository.findById(team.getId());
+
+            // then
+            assertThat(cache.contains(Team.class, team.getId())).isTrue();
+        } finally {
+            teamRepository.deleteAllInBatch();
+        }
+    }
+
+    @DisplayName("2차 캐시에서 팀을 찾으면 캐시 적중 메트릭이 올라간다.")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void secondLevelCacheMetricsTest() {
+        // given
+        Team team = teamRepository.save(createTeam("teamA"));
+        entityManager.getEntityManagerFactory().getCache().evict(Team.class);
+        double hits = cacheRequests("hit");
+        double misses = cacheRequests("miss");
+
+        try {
+            // when
+            teamRepository.findById(team.getId());
+            teamRepository.findById(team.getId());
+
+            // then
+            assertThat(cacheRequests("miss")).isEqualTo(misses + 1);
+            assertThat(cacheRequests("hit")).isEqualTo(hits + 1);
+        } finally {
+            teamRepository.deleteAllInBatch();
+        }
+    }
+
+    private double cacheRequests(String result) {
+        return meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "team")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
     private Team createTeam(String name) {
         return Team.builder()
                 .name(name)
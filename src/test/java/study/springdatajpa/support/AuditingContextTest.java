@@ -0,0 +1,71 @@
+package study.springdatajpa.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuditingContextTest {
+    @DisplayName("같은 구간 안의 시각은 처음 만든 값을 재사용하고, 구간이 지나거나 시계가 뒤로 가면 새로 만든다.")
+    @Test
+    void coarseClockTest() {
+        // given
+        long millis = 1_000;
+        LocalDateTime first = AuditingContext.now(millis);
+
+        // when
+        LocalDateTime sameWindow = AuditingContext.now(millis + AuditingContext.GRANULARITY_MILLIS - 1);
+        LocalDateTime nextWindow = AuditingContext.now(millis + AuditingContext.GRANULARITY_MILLIS);
+        LocalDateTime clockBack = AuditingContext.now(millis);
+
+        // then
+        assertThat(sameWindow).isSameAs(first);
+        assertThat(nextWindow).isAfter(first);
+        assertThat(clockBack).isEqualTo(first).isNotSameAs(first);
+    }
+
+    @DisplayName("배치 범위 안에서는 시간이 지나도 같은 시각을 사용하고, 중첩된 배치는 바깥 배치의 시각을 사용한다.")
+    @Test
+    void batchScopeTest() throws InterruptedException {
+        // given
+        LocalDateTime[] times = new LocalDateTime[3];
+
+        // when
+        AuditingContext.inBatch(() -> {
+            times[0] = AuditingContext.now();
+            sleep(AuditingContext.GRANULARITY_MILLIS * 2);
+            times[1] = AuditingContext.now();
+            times[2] = AuditingContext.inBatch(() -> AuditingContext.now());
+        });
+
+        // then
+        assertThat(times[1]).isSameAs(times[0]);
+        assertThat(times[2]).isSameAs(times[0]);
+        assertThat(AuditingContext.currentBatch()).isNull();
+        Thread.sleep(AuditingContext.GRANULARITY_MILLIS * 2);
+        assertThat(AuditingContext.now()).isAfter(times[0]);
+    }
+
+    @DisplayName("배치 안에서 예외가 발생해도 배치 범위가 정리된다.")
+    @Test
+    void batchScopeClearedOnExceptionTest() {
+        // when
+        assertThrows(IllegalStateException.class, () -> AuditingContext.inBatch(() -> {
+            throw new IllegalStateException();
+        }));
+
+        // then
+        assertThat(AuditingContext.currentBatch()).isNull();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
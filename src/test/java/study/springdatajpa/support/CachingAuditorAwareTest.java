@@ -0,0 +1,69 @@
+package study.springdatajpa.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingAuditorAwareTest {
+    private final AtomicInteger resolveCount = new AtomicInteger();
+    private final CachingAuditorAware auditorAware = new CachingAuditorAware(() -> "auditor" + resolveCount.incrementAndGet());
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @DisplayName("요청과 배치 밖에서는 작성자를 매번 구한다.")
+    @Test
+    void resolveEveryTimeOutsideScopeTest() {
+        // when
+        auditorAware.getCurrentAuditor();
+        auditorAware.getCurrentAuditor();
+
+        // then
+        assertThat(resolveCount.get()).isEqualTo(2);
+    }
+
+    @DisplayName("HTTP 요청마다 작성자를 한 번만 구한다.")
+    @Test
+    void resolveOncePerRequestTest() {
+        // given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // when
+        String first = auditorAware.getCurrentAuditor().orElseThrow();
+        String second = auditorAware.getCurrentAuditor().orElseThrow();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        String nextRequest = auditorAware.getCurrentAuditor().orElseThrow();
+
+        // then
+        assertThat(second).isEqualTo(first);
+        assertThat(nextRequest).isNotEqualTo(first);
+        assertThat(resolveCount.get()).isEqualTo(2);
+    }
+
+    @DisplayName("배치 범위 안에서는 요청보다 배치를 우선해서 작성자를 한 번만 구한다.")
+    @Test
+    void resolveOncePerBatchTest() {
+        // given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        String requestAuditor = auditorAware.getCurrentAuditor().orElseThrow();
+
+        // when
+        String[] batchAuditors = AuditingContext.inBatch(() -> new String[]{
+                auditorAware.getCurrentAuditor().orElseThrow(),
+                auditorAware.getCurrentAuditor().orElseThrow()
+        });
+
+        // then
+        assertThat(batchAuditors[1]).isEqualTo(batchAuditors[0]).isNotEqualTo(requestAuditor);
+        assertThat(resolveCount.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,112 @@
+package study.springdatajpa.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+@SpringBootTest(properties = "index-advisor.enabled=true")
+class IndexAdvisorTest {
+    @Autowired
+    IndexAdvisor indexAdvisor;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    ApplicationContext applicationContext;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @DisplayName("JPQL의 where 조건을 동등 조건 컬럼과 범위 조건 컬럼으로 나눈다.")
+    @Test
+    void parseJpqlTest() {
+        // when
+        IndexAdvisor.Predicates predicates = IndexAdvisor.parseJpql("select m from Member m join m.team t where m.age > :age and m.username = :username and t.name = :name");
+
+        // then
+        assertThat(predicates.getEqualities()).containsExactly("username");
+        assertThat(predicates.getRanges()).containsExactly("age");
+    }
+
+    @DisplayName("인덱스의 앞쪽 컬럼이 동등 조건 컬럼으로 이어져야 조건을 인덱스로 찾을 수 있다고 본다.")
+    @Test
+    void coversTest() {
+        // given
+        List<String> equalities = List.of("username", "team_id");
+        List<String> ranges = List.of("age");
+
+        // when & then
+        assertThat(IndexAdvisor.covers(List.of("username", "team_id", "age"), equalities, ranges)).isTrue();
+        assertThat(IndexAdvisor.covers(List.of("team_id", "username"), equalities, ranges)).isTrue();
+        assertThat(IndexAdvisor.covers(List.of("username"), equalities, ranges)).isTrue();
+        assertThat(IndexAdvisor.covers(List.of("username", "age", "team_id"), equalities, ranges)).isFalse();
+        assertThat(IndexAdvisor.covers(List.of("age", "username", "team_id"), equalities, ranges)).isFalse();
+        assertThat(IndexAdvisor.covers(List.of("member_id", "username"), equalities, ranges)).isFalse();
+        assertThat(IndexAdvisor.covers(List.of("age", "member_id"), List.of(), ranges)).isTrue();
+    }
+
+    @DisplayName("인덱스 메타데이터를 읽지 못해도 애플리케이션 시작을 막지 않는다.")
+    @Test
+    void adviseIgnoresMetadataFailureTest() {
+        // given
+        IndexAdvisor advisor = new IndexAdvisor(applicationContext, entityManagerFactory, brokenDataSource(), false);
+
+        // when & then
+        assertDoesNotThrow(advisor::advise);
+    }
+
+    @DisplayName("모든 리포지토리 쿼리의 조건 컬럼에 인덱스가 있으면 제안하지 않는다.")
+    @Test
+    void noMissingIndexTest() {
+        // when
+        List<IndexAdvisor.IndexAdvice> missingIndexes = indexAdvisor.findMissingIndexes();
+
+        // then
+        assertThat(missingIndexes).isEmpty();
+    }
+
+    @DisplayName("인덱스가 없는 조건 컬럼을 사용하는 쿼리 메서드를 찾는다.")
+    @Test
+    void findMissingIndexTest() {
+        // given
+        jdbcTemplate.execute("drop index ix_member_age_id");
+
+        try {
+            // when
+            List<IndexAdvisor.IndexAdvice> missingIndexes = indexAdvisor.findMissingIndexes();
+
+            // then
+            assertThat(missingIndexes).hasSize(1);
+            assertThat(missingIndexes.get(0).getTable()).isEqualTo("member");
+            assertThat(missingIndexes.get(0).getColumns()).containsExactly("age");
+            assertThat(missingIndexes.get(0).getMethods()).contains("Member.findByAge");
+        } finally {
+            jdbcTemplate.execute("create index ix_member_age_id on member (age, member_id)");
+        }
+    }
+
+    private static DataSource brokenDataSource() {
+        return new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("connection refused");
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        };
+    }
+}
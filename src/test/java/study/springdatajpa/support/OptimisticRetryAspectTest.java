@@ -0,0 +1,169 @@
+package study.springdatajpa.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.springdatajpa.entity.Member;
+import study.springdatajpa.repository.MemberJpaRepository;
+import study.springdatajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// 재시도마다 트랜잭션이 새로 시작되는지 확인해야 하므로 테스트 트랜잭션을 사용하지 않는다.
+@SpringBootTest
+class OptimisticRetryAspectTest {
+    @Autowired
+    ConflictingUpdater conflictingUpdater;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("커밋할 때 버전 충돌이 발생하면 새로운 트랜잭션에서 메서드를 다시 실행한다.")
+    @Test
+    void retryInNewTransactionTest() {
+        // given
+        Member member = memberRepository.save(createMember("memberA"));
+        double retries = retries();
+
+        // when
+        conflictingUpdater.rename(member.getId(), "memberB");
+
+        // then
+        List<Object> transactions = conflictingUpdater.getTransactions();
+        assertThat(transactions).hasSize(2).doesNotContainNull();
+        assertThat(transactions.get(0)).isNotSameAs(transactions.get(1));
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getUsername()).isEqualTo("memberB");
+        assertThat(retries()).isEqualTo(retries + 1);
+    }
+
+    @DisplayName("2차 캐시에 남은 이전 버전으로 회원 이름을 바꾸다 충돌하면, 다시 읽어서 바꾼다.")
+    @Test
+    void changeUsernameRetryTest() throws SQLException {
+        // given
+        Member member = memberRepository.save(createMember("memberA"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> memberJpaRepository.findById(member.getId()));
+        assertThat(entityManagerFactory.getCache().contains(Member.class, member.getId())).isTrue();
+        incrementVersion(dataSource, member.getId());
+        double retries = retries();
+
+        // when
+        memberJpaRepository.changeUsername(member.getId(), "memberB");
+
+        // then
+        Member findMember = memberRepository.findById(member.getId()).orElseThrow();
+        assertThat(findMember.getUsername()).isEqualTo("memberB");
+        assertThat(findMember.getVersion()).isEqualTo(member.getVersion() + 2);
+        assertThat(retries()).isEqualTo(retries + 1);
+    }
+
+    @DisplayName("바깥 트랜잭션 안에서 재시도 메서드를 호출하면 실행하지 않고 예외가 발생한다.")
+    @Test
+    void activeTransactionTest() {
+        // given
+        Member member = memberRepository.save(createMember("memberA"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                memberJpaRepository.changeUsername(member.getId(), "memberB")));
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getUsername()).isEqualTo("memberA");
+    }
+
+    private double retries() {
+        return meterRegistry.get("optimistic.lock.retries").counter().count();
+    }
+
+    // 하이버네이트와 스프링 트랜잭션을 거치지 않고 다른 커넥션에서 버전을 올려서 커밋한다.
+    private static void incrementVersion(DataSource dataSource, Long memberId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("update member set version = version + 1 where member_id = ?")) {
+            connection.setAutoCommit(true);
+            statement.setLong(1, memberId);
+            statement.executeUpdate();
+        }
+    }
+
+    private static Member createMember(String username) {
+        return Member.builder()
+                .username(username)
+                .age(25)
+                .build();
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ConflictingUpdater conflictingUpdater(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+            return new ConflictingUpdater(dataSource, entityManagerFactory);
+        }
+    }
+
+    // 첫 번째 시도에서만 다른 트랜잭션이 먼저 회원을 수정한다. 시도마다 현재 트랜잭션의 영속성 컨텍스트를 기록한다.
+    static class ConflictingUpdater {
+        private final DataSource dataSource;
+        private final EntityManagerFactory entityManagerFactory;
+        private final List<Object> transactions = new ArrayList<>();
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        ConflictingUpdater(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+            this.dataSource = dataSource;
+            this.entityManagerFactory = entityManagerFactory;
+        }
+
+        @OptimisticRetry
+        @Transactional
+        public void rename(Long memberId, String username) {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+            transactions.add(TransactionSynchronizationManager.getResource(entityManagerFactory));
+            Member member = entityManager.find(Member.class, memberId);
+            if (transactions.size() == 1) {
+                try {
+                    incrementVersion(dataSource, memberId);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            member.setUsername(username);
+        }
+
+        public List<Object> getTransactions() {
+            return transactions;
+        }
+    }
+}
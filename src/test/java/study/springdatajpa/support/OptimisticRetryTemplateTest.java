@@ -0,0 +1,83 @@
+package study.springdatajpa.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.springdatajpa.entity.Member;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class OptimisticRetryTemplateTest {
+    @Autowired
+    OptimisticRetryTemplate optimisticRetryTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @DisplayName("낙관적 락 충돌이 발생하면 트랜잭션을 다시 실행한다.")
+    @Test
+    void retryOnConflictTest() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        String result = optimisticRetryTemplate.execute(status -> {
+            if (attempts.incrementAndGet() < OptimisticRetryTemplate.DEFAULT_MAX_ATTEMPTS) {
+                throw new ObjectOptimisticLockingFailureException(Member.class, 1L);
+            }
+            return "done";
+        });
+
+        // then
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts.get()).isEqualTo(OptimisticRetryTemplate.DEFAULT_MAX_ATTEMPTS);
+    }
+
+    @DisplayName("재시도 횟수를 모두 사용하면 충돌 예외를 그대로 던진다.")
+    @Test
+    void exhaustedRetryTest() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when & then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> optimisticRetryTemplate.execute(status -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Member.class, 1L);
+        }));
+        assertThat(attempts.get()).isEqualTo(OptimisticRetryTemplate.DEFAULT_MAX_ATTEMPTS);
+    }
+
+    @DisplayName("낙관적 락 충돌이 아닌 예외는 재시도하지 않는다.")
+    @Test
+    void noRetryOnOtherExceptionTest() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> optimisticRetryTemplate.execute(status -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException();
+        }));
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    @DisplayName("이미 시작된 트랜잭션 안에서 호출하면 작업을 실행하지 않고 예외가 발생한다.")
+    @Test
+    void activeTransactionTest() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                optimisticRetryTemplate.execute(retryStatus -> attempts.incrementAndGet())));
+        assertThat(attempts.get()).isZero();
+    }
+}
@@ -0,0 +1,58 @@
+package study.springdatajpa.support;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import study.springdatajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class QueryPlanWarmupTest {
+    @Autowired
+    QueryPlanWarmup queryPlanWarmup;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @DisplayName("리포지토리 쿼리 메서드를 모두 실행하면 UP 상태가 된다.")
+    @Test
+    void warmupTest() throws InterruptedException {
+        // when
+        boolean completed = queryPlanWarmup.await(10, TimeUnit.SECONDS);
+
+        // then
+        Health health = queryPlanWarmup.health();
+        assertThat(completed).isTrue();
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat((int) health.getDetails().get("executedQueries")).isPositive();
+        assertThat(health.getDetails().get("failedQueries")).isEqualTo(0);
+    }
+
+    @DisplayName("워밍업이 끝나면 메서드 이름 쿼리와 count 쿼리를 처음 실행해도 쿼리 플랜을 새로 컴파일하지 않는다.")
+    @Test
+    void derivedQueryPlanCachedTest() throws InterruptedException {
+        // given
+        queryPlanWarmup.await(10, TimeUnit.SECONDS);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        // when
+        memberRepository.findByAge(25, PageRequest.of(1, 1));
+        memberRepository.findMemberListByUsername("memberA");
+        memberRepository.findByUsernameAndAgeGreaterThan("memberA", 20);
+
+        // then
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+    }
+}